@@ -0,0 +1,31 @@
+package com.example.usermanagementwithcassandra.benchmarks;
+
+import com.example.usermanagementwithcassandra.entities.Role;
+import com.example.usermanagementwithcassandra.security.PrincipalCache;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthoritiesBenchmark {
+
+    private Set<String> roles;
+
+    @Setup
+    public void setup() {
+        roles = Set.of(Role.ADMINISTRATOR, Role.GUEST);
+    }
+
+    @Benchmark
+    public List<GrantedAuthority> toAuthorities() {
+        return PrincipalCache.toAuthorities(roles);
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.usermanagementwithcassandra.benchmarks;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.DriverConfigLoader;
+import com.example.usermanagementwithcassandra.daos.CqlUserDao;
+import com.example.usermanagementwithcassandra.daos.CqlUserSearchDao;
+import com.example.usermanagementwithcassandra.dtos.UserPageResponse;
+import com.example.usermanagementwithcassandra.entities.Role;
+import com.example.usermanagementwithcassandra.entities.User;
+import com.example.usermanagementwithcassandra.mappers.UserMapper;
+import com.example.usermanagementwithcassandra.services.UserSearchService;
+import com.example.usermanagementwithcassandra.utils.ExecutionProfiles;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.testcontainers.containers.CassandraContainer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Same searches as UserSearchBenchmark, served by users_by_prefix and users on a seeded Cassandra container
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CqlUserSearchBenchmark {
+
+    private static final List<String> LAST_NAMES = List.of("Johnson", "Jones", "Smith", "Brown", "Garcia", "Miller");
+    private static final int SEED_CONCURRENCY = 256;
+
+    @Param({"10000", "100000"})
+    private int users;
+
+    private CassandraContainer<?> cassandraContainer;
+    private CqlSession session;
+    private CqlUserSearchDao userSearchDao;
+    private UserSearchService userSearchService;
+    private String rareTerm;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        cassandraContainer = new CassandraContainer<>("cassandra:4.1").withInitScript("database-init.sql");
+        cassandraContainer.start();
+        session = CqlSession.builder()
+                .addContactPoint(cassandraContainer.getContactPoint())
+                .withLocalDatacenter(cassandraContainer.getLocalDatacenter())
+                .withAuthCredentials(cassandraContainer.getUsername(), cassandraContainer.getPassword())
+                .withKeyspace("users_database")
+                .withConfigLoader(DriverConfigLoader.programmaticBuilder()
+                        .startProfile(ExecutionProfiles.AUTH_READ).withString(DefaultDriverOption.REQUEST_CONSISTENCY, "LOCAL_ONE").withDuration(DefaultDriverOption.REQUEST_TIMEOUT, Duration.ofSeconds(1)).endProfile()
+                        .startProfile(ExecutionProfiles.ADMIN_SCAN).withString(DefaultDriverOption.REQUEST_CONSISTENCY, "LOCAL_ONE").withDuration(DefaultDriverOption.REQUEST_TIMEOUT, Duration.ofSeconds(10)).endProfile()
+                        .startProfile(ExecutionProfiles.WRITE).withString(DefaultDriverOption.REQUEST_CONSISTENCY, "LOCAL_QUORUM").withDuration(DefaultDriverOption.REQUEST_TIMEOUT, Duration.ofSeconds(10)).endProfile()
+                        .startProfile(ExecutionProfiles.EMAIL_CLAIM).withString(DefaultDriverOption.REQUEST_CONSISTENCY, "LOCAL_QUORUM").withString(DefaultDriverOption.REQUEST_SERIAL_CONSISTENCY, "LOCAL_SERIAL").withDuration(DefaultDriverOption.REQUEST_TIMEOUT, Duration.ofSeconds(5)).endProfile()
+                        .build())
+                .build();
+        CqlUserDao userDao = new CqlUserDao(session);
+        userSearchDao = new CqlUserSearchDao(session);
+        userSearchService = new UserSearchService(userSearchDao, userDao, Mappers.getMapper(UserMapper.class), 2, 10, 20, 50, 16);
+
+        Semaphore inFlight = new Semaphore(SEED_CONCURRENCY);
+        for(int i = 0; i < users; i++) {
+            User user = new User("First" + i, LAST_NAMES.get(i % LAST_NAMES.size()), "user" + i + "@example.com", "$2a$10$protected", Set.of(Role.GUEST));
+            inFlight.acquireUninterruptibly();
+            CompletableFuture.allOf(userDao.saveAsync(user), userSearchService.indexAsync(null, user))
+                    .whenComplete((seeded, ex) -> inFlight.release());
+        }
+        inFlight.acquireUninterruptibly(SEED_CONCURRENCY);
+        rareTerm = "user" + (users - 1) + "@";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        session.close();
+        cassandraContainer.stop();
+    }
+
+    @Benchmark
+    public List<String> prefixLookupCommonTerm() {
+        return userSearchDao.findUids("jo", 20, null);
+    }
+
+    @Benchmark
+    public UserPageResponse prefixSearchCommonTerm() {
+        return userSearchService.search("jo", 20, null);
+    }
+
+    @Benchmark
+    public UserPageResponse prefixSearchRareTerm() {
+        return userSearchService.search(rareTerm, 20, null);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.usermanagementwithcassandra.benchmarks;
+
+import com.example.usermanagementwithcassandra.security.CalibratedBCryptPasswordEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    @Param({"0", "10"})
+    private int strength;
+
+    private CalibratedBCryptPasswordEncoder encoder;
+    private String encodedPassword;
+
+    @Setup
+    public void setup() {
+        encoder = strength > 0
+                ? new CalibratedBCryptPasswordEncoder(strength)
+                : CalibratedBCryptPasswordEncoder.calibrate(80, 10, 14);
+        encodedPassword = encoder.encode("qwerty");
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode("qwerty");
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches("qwerty", encodedPassword);
+    }
+}
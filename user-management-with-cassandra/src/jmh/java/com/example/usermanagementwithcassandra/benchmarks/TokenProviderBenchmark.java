@@ -0,0 +1,59 @@
+package com.example.usermanagementwithcassandra.benchmarks;
+
+import com.example.usermanagementwithcassandra.daos.InMemoryRevokedTokenDao;
+import com.example.usermanagementwithcassandra.entities.Role;
+import com.example.usermanagementwithcassandra.entities.User;
+import com.example.usermanagementwithcassandra.security.TokenProvider;
+import com.example.usermanagementwithcassandra.services.TokenRevocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenProviderBenchmark {
+
+    private TokenProvider tokenProvider;
+    private User user;
+    private String headerAuthorization;
+    private TokenProvider.VerifiedToken verifiedToken;
+    private TokenRevocationService tokenRevocationService;
+
+    @Setup
+    public void setup() {
+        tokenProvider = new TokenProvider("123456", "Bearer", "--", 10000000L, "authorities", new SimpleMeterRegistry());
+        user = new User("Root", "Admin", "root@gmail.com", "$2a$10$protected", Set.of(Role.ADMINISTRATOR, Role.GUEST));
+        headerAuthorization = String.format("%s %s", tokenProvider.getTokenType(), tokenProvider.issue(user));
+        verifiedToken = tokenProvider.verify(headerAuthorization);
+        InMemoryRevokedTokenDao revokedTokenDao = new InMemoryRevokedTokenDao();
+        for(int i = 0; i < 100000; i++) {
+            revokedTokenDao.revoke(UUID.randomUUID().toString(), Instant.now(), Duration.ofHours(1));
+        }
+        tokenRevocationService = new TokenRevocationService(revokedTokenDao, 10000000L, 100000, 0.01, new SimpleMeterRegistry());
+        tokenRevocationService.refresh();
+    }
+
+    @Benchmark
+    public String issue() {
+        return tokenProvider.issue(user);
+    }
+
+    @Benchmark
+    public TokenProvider.VerifiedToken verify() {
+        return tokenProvider.verify(headerAuthorization);
+    }
+
+    @Benchmark
+    public boolean isRevoked() {
+        return tokenRevocationService.isRevoked(verifiedToken);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.usermanagementwithcassandra.benchmarks;
+
+import com.example.usermanagementwithcassandra.dtos.UserRequest;
+import com.example.usermanagementwithcassandra.dtos.UserResponse;
+import com.example.usermanagementwithcassandra.entities.Role;
+import com.example.usermanagementwithcassandra.entities.User;
+import com.example.usermanagementwithcassandra.mappers.UserMapper;
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    private ModelMapper modelMapper;
+    private UserMapper userMapper;
+    private User user;
+    private UserRequest userRequest;
+
+    @Setup
+    public void setup() {
+        modelMapper = new ModelMapper();
+        modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT);
+        userMapper = Mappers.getMapper(UserMapper.class);
+        user = new User("Root", "Admin", "root@gmail.com", "$2a$10$protected", Set.of(Role.ADMINISTRATOR, Role.GUEST));
+        userRequest = new UserRequest("John", "Doe", "johndoe@gmail.com", "qwerty", List.of(Role.GUEST));
+    }
+
+    @Benchmark
+    public UserResponse modelMapperToResponse() {
+        return modelMapper.map(user, UserResponse.class);
+    }
+
+    @Benchmark
+    public UserResponse generatedMapperToResponse() {
+        return userMapper.toResponse(user);
+    }
+
+    @Benchmark
+    public User modelMapperToUser() {
+        return modelMapper.map(userRequest, User.class);
+    }
+
+    @Benchmark
+    public User generatedMapperToUser() {
+        return userMapper.toUser(userRequest);
+    }
+}
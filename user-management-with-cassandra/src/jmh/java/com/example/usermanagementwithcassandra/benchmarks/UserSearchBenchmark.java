@@ -0,0 +1,64 @@
+package com.example.usermanagementwithcassandra.benchmarks;
+
+import com.example.usermanagementwithcassandra.daos.InMemoryUserDao;
+import com.example.usermanagementwithcassandra.daos.InMemoryUserSearchDao;
+import com.example.usermanagementwithcassandra.dtos.UserPageResponse;
+import com.example.usermanagementwithcassandra.entities.Role;
+import com.example.usermanagementwithcassandra.entities.User;
+import com.example.usermanagementwithcassandra.mappers.UserMapper;
+import com.example.usermanagementwithcassandra.services.UserSearchService;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserSearchBenchmark {
+
+    private static final List<String> LAST_NAMES = List.of("Johnson", "Jones", "Smith", "Brown", "Garcia", "Miller");
+
+    @Param({"1000", "10000", "100000"})
+    private int users;
+
+    private InMemoryUserDao userDao;
+    private UserSearchService userSearchService;
+    private String rareTerm;
+
+    @Setup
+    public void setup() {
+        userDao = new InMemoryUserDao();
+        userSearchService = new UserSearchService(new InMemoryUserSearchDao(), userDao, Mappers.getMapper(UserMapper.class), 2, 10, 20, 50, 16);
+        for(int i = 0; i < users; i++) {
+            User user = new User("First" + i, LAST_NAMES.get(i % LAST_NAMES.size()), "user" + i + "@example.com", "$2a$10$protected", Set.of(Role.GUEST));
+            userDao.save(user);
+            userSearchService.index(null, user);
+        }
+        rareTerm = "user" + (users - 1) + "@";
+    }
+
+    @Benchmark
+    public UserPageResponse prefixSearchCommonTerm() {
+        return userSearchService.search("jo", 20, null);
+    }
+
+    @Benchmark
+    public UserPageResponse prefixSearchRareTerm() {
+        return userSearchService.search(rareTerm, 20, null);
+    }
+
+    @Benchmark
+    public Optional<User> fullScanRareTerm() {
+        try (Stream<User> all = userDao.streamAll(500)) {
+            return all.filter(user -> user.getEmail().startsWith(rareTerm)).findFirst();
+        }
+    }
+}
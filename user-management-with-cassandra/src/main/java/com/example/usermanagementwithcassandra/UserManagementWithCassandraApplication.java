@@ -2,10 +2,10 @@ package com.example.usermanagementwithcassandra;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.data.cassandra.repository.config.EnableCassandraRepositories;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
-@EnableCassandraRepositories("com.example.usermanagementwithcassandra.repositories")
+@EnableScheduling
 public class UserManagementWithCassandraApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,283 @@
+package com.example.usermanagementwithcassandra.controllers;
+
+import com.example.usermanagementwithcassandra.dtos.BulkImportResponse;
+import com.example.usermanagementwithcassandra.dtos.CacheStatsResponse;
+import com.example.usermanagementwithcassandra.dtos.HashingStatsResponse;
+import com.example.usermanagementwithcassandra.dtos.LoginRequest;
+import com.example.usermanagementwithcassandra.dtos.LoginResponse;
+import com.example.usermanagementwithcassandra.dtos.UserLookupRequest;
+import com.example.usermanagementwithcassandra.dtos.UserPageResponse;
+import com.example.usermanagementwithcassandra.dtos.UserPatchRequest;
+import com.example.usermanagementwithcassandra.dtos.UserRequest;
+import com.example.usermanagementwithcassandra.dtos.UserResponse;
+import com.example.usermanagementwithcassandra.entities.User;
+import com.example.usermanagementwithcassandra.security.BoundedPasswordEncoder;
+import com.example.usermanagementwithcassandra.security.PasswordHashingRejectedException;
+import com.example.usermanagementwithcassandra.security.PrincipalCache;
+import com.example.usermanagementwithcassandra.services.EmailAlreadyInUseException;
+import com.example.usermanagementwithcassandra.services.ReactiveUserService;
+import com.example.usermanagementwithcassandra.services.RoleMembershipService;
+import com.example.usermanagementwithcassandra.services.RoleService;
+import com.example.usermanagementwithcassandra.services.UserImportService;
+import com.example.usermanagementwithcassandra.services.UserSearchService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.List;
+import java.util.Objects;
+
+
+@RestController
+@Profile("reactive")
+@RequestMapping(path = "/users")
+public class ReactiveUserManagementController {
+
+    private static final int BULK_PIPE_SIZE = 64 * 1024;
+    private static final int BULK_PREFETCH = 4;
+
+    private final Logger logger = LoggerFactory.getLogger(ReactiveUserManagementController.class);
+    private final ReactiveUserService userService;
+    private final RoleService roleService;
+    private final UserSearchService userSearchService;
+    private final RoleMembershipService roleMembershipService;
+    private final UserImportService userImportService;
+    private final PrincipalCache principalCache;
+    private final BoundedPasswordEncoder passwordEncoder;
+
+
+    @Autowired
+    public ReactiveUserManagementController(ReactiveUserService userService, RoleService roleService, UserSearchService userSearchService, RoleMembershipService roleMembershipService,
+                                            UserImportService userImportService, PrincipalCache principalCache, BoundedPasswordEncoder passwordEncoder) {
+        this.userService = userService;
+        this.roleService = roleService;
+        this.userSearchService = userSearchService;
+        this.roleMembershipService = roleMembershipService;
+        this.userImportService = userImportService;
+        this.principalCache = principalCache;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @GetMapping(path = "/roles", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<List<String>>> getAllRoles() {
+        return Mono.fromCallable(() -> ResponseEntity.ok(roleService.getAll()))
+                .onErrorResume(ex -> Mono.just(ResponseEntity.internalServerError().build()));
+    }
+
+    @GetMapping(path = "/roles/{name}/members", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated() and hasAuthority('Administrator')")
+    public Mono<ResponseEntity<UserPageResponse>> getRoleMembers(@PathVariable("name") String name, @RequestParam(name = "pageSize", required = false) Integer pageSize, @RequestParam(name = "cursor", required = false) String cursor) {
+        return roleService.findByName(name)
+                .flatMap(role -> Mono.fromCallable(() -> ResponseEntity.ok(roleMembershipService.getMembers(name, pageSize, cursor)))
+                        .subscribeOn(Schedulers.boundedElastic()))
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(ex -> internalServerError(ex));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated() and hasAuthority('Administrator')")
+    public Mono<ResponseEntity<UserPageResponse>> getAllUsers(@RequestParam(name = "pageSize", required = false) Integer pageSize, @RequestParam(name = "cursor", required = false) String cursor) {
+        return userService.getUsersPage(pageSize, cursor)
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(ex -> internalServerError(ex));
+    }
+
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("isAuthenticated() and hasAuthority('Administrator')")
+    public Flux<UserResponse> exportUsers() {
+        return userService.exportUsers()
+                .doOnError(ex -> logger.error("Exception captured", ex));
+    }
+
+    @GetMapping(path = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated() and hasAuthority('Administrator')")
+    public Mono<ResponseEntity<UserPageResponse>> searchUsers(@RequestParam(name = "q") String query, @RequestParam(name = "pageSize", required = false) Integer pageSize, @RequestParam(name = "cursor", required = false) String cursor) {
+        return Mono.fromCallable(() -> ResponseEntity.ok(userSearchService.search(query, pageSize, cursor)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(ex -> internalServerError(ex));
+    }
+
+    @GetMapping(path = "/{uid}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated and hasAuthority('Administrator') or isAuthenticated() and principal.uid == #uid")
+    public Mono<ResponseEntity<UserResponse>> getUserById(@PathVariable("uid") String uid) {
+        return userService.getUserById(uid)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(ex -> internalServerError(ex));
+    }
+
+    @PostMapping(path = "/lookup", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public Mono<ResponseEntity<List<UserResponse>>> lookupUsers(@Valid @RequestBody UserLookupRequest lookupRequest, @AuthenticationPrincipal User principal) {
+        if(!userService.createUserRequestHasAdminRole(principal) && !lookupRequest.getUids().stream().allMatch(uid -> Objects.equals(uid, principal.getUid()))) {
+            return Mono.just(new ResponseEntity<>(HttpStatus.FORBIDDEN));
+        }
+        return userService.lookupUsers(lookupRequest.getUids())
+                .collectList()
+                .map(ResponseEntity::ok)
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(ex -> internalServerError(ex));
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<UserResponse>> createUser(@Validated(UserRequest.Create.class) @RequestBody UserRequest userRequest, @AuthenticationPrincipal User principal) {
+        boolean wannaCreateAdminUser = userService.createUserRequestHasAdminRole(userRequest);
+        if(wannaCreateAdminUser && (principal == null || !userService.createUserRequestHasAdminRole(principal))) {
+            return Mono.just(new ResponseEntity<>(HttpStatus.FORBIDDEN));
+        }
+        return userService.createUser(userRequest)
+                .map(user -> new ResponseEntity<>(user, HttpStatus.CREATED))
+                .onErrorResume(EmailAlreadyInUseException.class, ex -> Mono.just(new ResponseEntity<>(HttpStatus.CONFLICT)))
+                .onErrorResume(PasswordHashingRejectedException.class, ex -> serviceUnavailable())
+                .onErrorResume(ex -> internalServerError(ex));
+    }
+
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated() and hasAuthority('Administrator')")
+    public Mono<ResponseEntity<BulkImportResponse>> importUsers(@RequestBody Flux<DataBuffer> body) {
+        return Mono.fromCallable(() -> ResponseEntity.ok(importStreaming(body)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorResume(ex -> ex instanceof IllegalArgumentException || ex instanceof JsonProcessingException, ex -> {
+                    logger.error("Invalid bulk import payload", ex);
+                    return Mono.just(ResponseEntity.badRequest().build());
+                })
+                .onErrorResume(ex -> internalServerError(ex));
+    }
+
+    @PutMapping(path = "/{uid}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated and hasAuthority('Administrator') or isAuthenticated() and principal.uid == #uid")
+    public Mono<ResponseEntity<UserResponse>> editUser(@PathVariable("uid") String uid, @Valid @RequestBody UserRequest userRequest, @AuthenticationPrincipal User principal) {
+        boolean wannaCreateAdminUser = userService.createUserRequestHasAdminRole(userRequest);
+        if(wannaCreateAdminUser && (principal == null || !userService.createUserRequestHasAdminRole(principal))) {
+            return Mono.just(new ResponseEntity<>(HttpStatus.FORBIDDEN));
+        }
+        return userService.editUser(uid, userRequest)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(EmailAlreadyInUseException.class, ex -> Mono.just(new ResponseEntity<>(HttpStatus.CONFLICT)))
+                .onErrorResume(PasswordHashingRejectedException.class, ex -> serviceUnavailable())
+                .onErrorResume(ex -> internalServerError(ex));
+    }
+
+    @PatchMapping(path = "/{uid}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated and hasAuthority('Administrator') or isAuthenticated() and principal.uid == #uid")
+    public Mono<ResponseEntity<UserResponse>> patchUser(@PathVariable("uid") String uid, @Valid @RequestBody UserPatchRequest patchRequest, @AuthenticationPrincipal User principal) {
+        boolean wannaGrantAdminRole = userService.patchRequestHasAdminRole(patchRequest);
+        if(wannaGrantAdminRole && (principal == null || !userService.createUserRequestHasAdminRole(principal))) {
+            return Mono.just(new ResponseEntity<>(HttpStatus.FORBIDDEN));
+        }
+        return userService.patchUser(uid, patchRequest)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build())
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(EmailAlreadyInUseException.class, ex -> Mono.just(new ResponseEntity<>(HttpStatus.CONFLICT)))
+                .onErrorResume(PasswordHashingRejectedException.class, ex -> serviceUnavailable())
+                .onErrorResume(ex -> internalServerError(ex));
+    }
+
+    @DeleteMapping(path = "/{uid}")
+    @PreAuthorize("isAuthenticated() and hasAuthority('Administrator') or isAuthenticated() and principal.uid == #uid")
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable("uid") String uid) {
+        return userService.deleteUser(uid)
+                .map(success -> success ? ResponseEntity.ok().<Void>build() : ResponseEntity.notFound().<Void>build())
+                .onErrorResume(ex -> internalServerError(ex));
+    }
+
+    @GetMapping(path = "/cache/principals", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated() and hasAuthority('Administrator')")
+    public Mono<ResponseEntity<CacheStatsResponse>> getPrincipalCacheStats() {
+        return Mono.fromCallable(() -> {
+                    CacheStats stats = principalCache.stats();
+                    return ResponseEntity.ok(new CacheStatsResponse(principalCache.size(), stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate()));
+                })
+                .onErrorResume(ex -> internalServerError(ex));
+    }
+
+    @GetMapping(path = "/hashing/executor", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated() and hasAuthority('Administrator')")
+    public Mono<ResponseEntity<HashingStatsResponse>> getHashingExecutorStats() {
+        return Mono.fromCallable(() -> ResponseEntity.ok(new HashingStatsResponse(passwordEncoder.getPoolSize(), passwordEncoder.getActiveCount(),
+                        passwordEncoder.getQueueDepth(), passwordEncoder.getQueueCapacity(), passwordEncoder.getCompletedCount(),
+                        passwordEncoder.getRejectedCount(), passwordEncoder.getAbandonedCount(), passwordEncoder.getAbandonedRunning(),
+                    passwordEncoder.getAverageHashMillis(), passwordEncoder.getAverageWaitMillis(), passwordEncoder.getEstimatedWaitMillis(),
+                    passwordEncoder.getRetryAfterSeconds())))
+                .onErrorResume(ex -> internalServerError(ex));
+    }
+
+    @PostMapping(path = "/login", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<LoginResponse>> login(@Valid @RequestBody LoginRequest loginRequest) {
+        return userService.login(loginRequest)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.UNAUTHORIZED))
+                .onErrorResume(PasswordHashingRejectedException.class, ex -> serviceUnavailable())
+                .onErrorResume(ex -> internalServerError(ex));
+    }
+
+    @PostMapping(path = "/logout")
+    @PreAuthorize("isAuthenticated()")
+    public Mono<ResponseEntity<Void>> logout(@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String headerAuthorization) {
+        return userService.logout(headerAuthorization)
+                .then(Mono.just(ResponseEntity.noContent().<Void>build()))
+                .onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()))
+                .onErrorResume(ex -> internalServerError(ex));
+    }
+
+    // The importer parses a blocking stream, so the body is piped into it as it arrives. At most BULK_PIPE_SIZE bytes
+    // plus the prefetched buffers wait in memory, a full pipe holds back demand on the request
+    private BulkImportResponse importStreaming(Flux<DataBuffer> body) throws IOException, InterruptedException {
+        PipedInputStream inputStream = new PipedInputStream(BULK_PIPE_SIZE);
+        PipedOutputStream outputStream = new PipedOutputStream(inputStream);
+        Disposable writer = DataBufferUtils.write(body.publishOn(Schedulers.boundedElastic(), BULK_PREFETCH), outputStream)
+                .doFinally(signal -> closeQuietly(outputStream))
+                .subscribe(DataBufferUtils.releaseConsumer(), ex -> logger.error("Bulk import payload stream failed", ex));
+        try (InputStream importStream = inputStream) {
+            return userImportService.importUsers(importStream);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private void closeQuietly(OutputStream outputStream) {
+        try {
+            outputStream.close();
+        } catch (IOException ex) {
+            logger.error("Exception captured", ex);
+        }
+    }
+
+    private <T> Mono<ResponseEntity<T>> serviceUnavailable() {
+        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordEncoder.getRetryAfterSeconds())).build());
+    }
+
+    private <T> Mono<ResponseEntity<T>> internalServerError(Throwable ex) {
+        logger.error("Exception captured", ex);
+        return Mono.just(ResponseEntity.internalServerError().build());
+    }
+
+}
@@ -1,38 +1,71 @@
 package com.example.usermanagementwithcassandra.controllers;
 
+import com.example.usermanagementwithcassandra.dtos.BulkImportResponse;
+import com.example.usermanagementwithcassandra.dtos.CacheStatsResponse;
+import com.example.usermanagementwithcassandra.dtos.HashingStatsResponse;
 import com.example.usermanagementwithcassandra.dtos.LoginRequest;
 import com.example.usermanagementwithcassandra.dtos.LoginResponse;
+import com.example.usermanagementwithcassandra.dtos.UserLookupRequest;
+import com.example.usermanagementwithcassandra.dtos.UserPageResponse;
+import com.example.usermanagementwithcassandra.dtos.UserPatchRequest;
 import com.example.usermanagementwithcassandra.dtos.UserRequest;
 import com.example.usermanagementwithcassandra.dtos.UserResponse;
 import com.example.usermanagementwithcassandra.entities.User;
+import com.example.usermanagementwithcassandra.security.BoundedPasswordEncoder;
+import com.example.usermanagementwithcassandra.security.PasswordHashingRejectedException;
+import com.example.usermanagementwithcassandra.security.PrincipalCache;
+import com.example.usermanagementwithcassandra.services.EmailAlreadyInUseException;
 import com.example.usermanagementwithcassandra.services.RoleService;
+import com.example.usermanagementwithcassandra.services.UserImportService;
+import com.example.usermanagementwithcassandra.services.RoleMembershipService;
+import com.example.usermanagementwithcassandra.services.UserSearchService;
 import com.example.usermanagementwithcassandra.services.UserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.validation.Valid;
+import jakarta.validation.Valid;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Objects;
 
 
 @RestController
+@Profile("!reactive")
 @RequestMapping(path = "/users")
 public class UserManagementController {
 
     private final Logger logger = LoggerFactory.getLogger(UserManagementController.class);
     private final UserService userService;
     private final RoleService roleService;
+    private final UserImportService userImportService;
+    private final UserSearchService userSearchService;
+    private final RoleMembershipService roleMembershipService;
+    private final PrincipalCache principalCache;
+    private final BoundedPasswordEncoder passwordEncoder;
+
 
     @Autowired
-    public UserManagementController(UserService userService, RoleService roleService) {
+    public UserManagementController(UserService userService, RoleService roleService, UserImportService userImportService, UserSearchService userSearchService, RoleMembershipService roleMembershipService, PrincipalCache principalCache, BoundedPasswordEncoder passwordEncoder) {
         this.userService = userService;
         this.roleService = roleService;
+        this.userImportService = userImportService;
+        this.userSearchService = userSearchService;
+        this.roleMembershipService = roleMembershipService;
+        this.principalCache = principalCache;
+        this.passwordEncoder = passwordEncoder;
     }
 
     @GetMapping(path = "/roles", produces = MediaType.APPLICATION_JSON_VALUE)
@@ -47,13 +80,65 @@ public class UserManagementController {
         return response;
     }
 
+    @GetMapping(path = "/roles/{name}/members", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated() and hasAuthority('Administrator')")
+    public ResponseEntity<UserPageResponse> getRoleMembers(@PathVariable("name") String name, @RequestParam(name = "pageSize", required = false) Integer pageSize, @RequestParam(name = "cursor", required = false) String cursor) {
+        ResponseEntity<UserPageResponse> response = null;
+        try {
+            if(roleService.getByName(name) != null) {
+                UserPageResponse members = roleMembershipService.getMembers(name, pageSize, cursor);
+                response = ResponseEntity.ok(members);
+            } else {
+                response = ResponseEntity.notFound().build();
+            }
+        } catch (IllegalArgumentException ex) {
+            response = ResponseEntity.badRequest().build();
+        } catch (Exception ex) {
+            logger.error("Exception captured", ex);
+            response = ResponseEntity.internalServerError().build();
+        }
+        return response;
+    }
+
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     @PreAuthorize("isAuthenticated() and hasAuthority('Administrator')")
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        ResponseEntity<List<UserResponse>> response = null;
+    public ResponseEntity<UserPageResponse> getAllUsers(@RequestParam(name = "pageSize", required = false) Integer pageSize, @RequestParam(name = "cursor", required = false) String cursor) {
+        ResponseEntity<UserPageResponse> response = null;
         try {
-            List<UserResponse> users = userService.getAllUsers();
+            UserPageResponse users = userService.getUsersPage(pageSize, cursor);
             response = ResponseEntity.ok(users);
+        } catch (IllegalArgumentException ex) {
+            response = ResponseEntity.badRequest().build();
+        } catch (Exception ex) {
+            logger.error("Exception captured", ex);
+            response = ResponseEntity.internalServerError().build();
+        }
+        return response;
+    }
+
+    @GetMapping(path = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("isAuthenticated() and hasAuthority('Administrator')")
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        StreamingResponseBody body = outputStream -> {
+            try {
+                long exported = userService.exportUsers(outputStream);
+                logger.info("Exported {} users", exported);
+            } catch (Exception ex) {
+                logger.error("Exception captured", ex);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @GetMapping(path = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated() and hasAuthority('Administrator')")
+    public ResponseEntity<UserPageResponse> searchUsers(@RequestParam(name = "q") String query, @RequestParam(name = "pageSize", required = false) Integer pageSize, @RequestParam(name = "cursor", required = false) String cursor) {
+        ResponseEntity<UserPageResponse> response = null;
+        try {
+            UserPageResponse users = userSearchService.search(query, pageSize, cursor);
+            response = ResponseEntity.ok(users);
+        } catch (IllegalArgumentException ex) {
+            response = ResponseEntity.badRequest().build();
         } catch (Exception ex) {
             logger.error("Exception captured", ex);
             response = ResponseEntity.internalServerError().build();
@@ -80,22 +165,60 @@ public class UserManagementController {
         return response;
     }
 
+    @PostMapping(path = "/lookup", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<UserResponse>> lookupUsers(@Valid @RequestBody UserLookupRequest lookupRequest) {
+        ResponseEntity<List<UserResponse>> response = null;
+        try {
+            Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            if(principal instanceof User && (userService.createUserRequestHasAdminRole((User) principal)
+                    || lookupRequest.getUids().stream().allMatch(uid -> Objects.equals(uid, ((User) principal).getUid())))) {
+                response = ResponseEntity.ok(userService.lookupUsers(lookupRequest.getUids()));
+            } else {
+                response = new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            }
+        } catch (IllegalArgumentException ex) {
+            response = ResponseEntity.badRequest().build();
+        } catch (Exception ex) {
+            logger.error("Exception captured", ex);
+            response = ResponseEntity.internalServerError().build();
+        }
+        return response;
+    }
+
     @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<UserResponse> createUser(@Valid @RequestBody UserRequest userRequest) {
+    public ResponseEntity<UserResponse> createUser(@Validated(UserRequest.Create.class) @RequestBody UserRequest userRequest) {
         ResponseEntity<UserResponse> response = null;
         try {
-            if(userService.isEmailAvailable(userRequest.getEmail())) {
-                boolean wannaCreateAdminUser = userService.createUserRequestHasAdminRole(userRequest);
-                Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-                if (!wannaCreateAdminUser || (principal != null && principal instanceof User && userService.createUserRequestHasAdminRole((User) principal))) {
-                    UserResponse user = userService.createUser(userRequest);
-                    response = new ResponseEntity<>(user, HttpStatus.CREATED);
-                } else {
-                    response = new ResponseEntity<>(HttpStatus.FORBIDDEN);
-                }
+            boolean wannaCreateAdminUser = userService.createUserRequestHasAdminRole(userRequest);
+            Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            if (!wannaCreateAdminUser || (principal != null && principal instanceof User && userService.createUserRequestHasAdminRole((User) principal))) {
+                UserResponse user = userService.createUser(userRequest);
+                response = new ResponseEntity<>(user, HttpStatus.CREATED);
             } else {
-                response = new ResponseEntity<>(HttpStatus.CONFLICT);
+                response = new ResponseEntity<>(HttpStatus.FORBIDDEN);
             }
+        } catch (EmailAlreadyInUseException ex) {
+            response = new ResponseEntity<>(HttpStatus.CONFLICT);
+        } catch (PasswordHashingRejectedException ex) {
+            response = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordEncoder.getRetryAfterSeconds())).build();
+        } catch (Exception ex) {
+            logger.error("Exception captured", ex);
+            response = ResponseEntity.internalServerError().build();
+        }
+        return response;
+    }
+
+    @PostMapping(path = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated() and hasAuthority('Administrator')")
+    public ResponseEntity<BulkImportResponse> importUsers(InputStream inputStream) {
+        ResponseEntity<BulkImportResponse> response = null;
+        try {
+            BulkImportResponse report = userImportService.importUsers(inputStream);
+            response = ResponseEntity.ok(report);
+        } catch (IllegalArgumentException | JsonProcessingException ex) {
+            logger.error("Invalid bulk import payload", ex);
+            response = ResponseEntity.badRequest().build();
         } catch (Exception ex) {
             logger.error("Exception captured", ex);
             response = ResponseEntity.internalServerError().build();
@@ -120,6 +243,40 @@ public class UserManagementController {
             } else {
                 response = new ResponseEntity<>(HttpStatus.FORBIDDEN);
             }
+        } catch (EmailAlreadyInUseException ex) {
+            response = new ResponseEntity<>(HttpStatus.CONFLICT);
+        } catch (PasswordHashingRejectedException ex) {
+            response = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordEncoder.getRetryAfterSeconds())).build();
+        } catch(Exception ex) {
+            logger.error("Exception captured", ex);
+            response = ResponseEntity.internalServerError().build();
+        }
+        return response;
+    }
+
+    @PatchMapping(path = "/{uid}", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated and hasAuthority('Administrator') or isAuthenticated() and principal.uid == #uid")
+    public ResponseEntity<UserResponse> patchUser(@PathVariable("uid") String uid, @Valid @RequestBody UserPatchRequest patchRequest) {
+        ResponseEntity<UserResponse> response = null;
+        try {
+            boolean wannaGrantAdminRole = userService.patchRequestHasAdminRole(patchRequest);
+            Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            if(!wannaGrantAdminRole || (principal != null && principal instanceof User && userService.createUserRequestHasAdminRole((User)principal))) {
+                UserResponse user = userService.patchUser(uid, patchRequest);
+                if(user != null) {
+                    response = ResponseEntity.ok(user);
+                } else {
+                    response = ResponseEntity.notFound().build();
+                }
+            } else {
+                response = new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            }
+        } catch (IllegalArgumentException ex) {
+            response = ResponseEntity.badRequest().build();
+        } catch (EmailAlreadyInUseException ex) {
+            response = new ResponseEntity<>(HttpStatus.CONFLICT);
+        } catch (PasswordHashingRejectedException ex) {
+            response = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordEncoder.getRetryAfterSeconds())).build();
         } catch(Exception ex) {
             logger.error("Exception captured", ex);
             response = ResponseEntity.internalServerError().build();
@@ -131,7 +288,6 @@ public class UserManagementController {
     @PreAuthorize("isAuthenticated() and hasAuthority('Administrator') or isAuthenticated() and principal.uid == #uid")
     public ResponseEntity<Void> deleteUser(@PathVariable("uid") String uid) {
         ResponseEntity<Void> response = null;
-        System.out.println("APPLOGGER - deleteUser " + uid);
         try {
             boolean success = userService.deleteUser(uid);
             if(success) {
@@ -146,6 +302,37 @@ public class UserManagementController {
         return response;
     }
 
+    @GetMapping(path = "/cache/principals", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated() and hasAuthority('Administrator')")
+    public ResponseEntity<CacheStatsResponse> getPrincipalCacheStats() {
+        ResponseEntity<CacheStatsResponse> response = null;
+        try {
+            CacheStats stats = principalCache.stats();
+            response = ResponseEntity.ok(new CacheStatsResponse(principalCache.size(), stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate()));
+        } catch (Exception ex) {
+            logger.error("Exception captured", ex);
+            response = ResponseEntity.internalServerError().build();
+        }
+        return response;
+    }
+
+    @GetMapping(path = "/hashing/executor", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("isAuthenticated() and hasAuthority('Administrator')")
+    public ResponseEntity<HashingStatsResponse> getHashingExecutorStats() {
+        ResponseEntity<HashingStatsResponse> response = null;
+        try {
+            response = ResponseEntity.ok(new HashingStatsResponse(passwordEncoder.getPoolSize(), passwordEncoder.getActiveCount(),
+                    passwordEncoder.getQueueDepth(), passwordEncoder.getQueueCapacity(), passwordEncoder.getCompletedCount(),
+                    passwordEncoder.getRejectedCount(), passwordEncoder.getAbandonedCount(), passwordEncoder.getAbandonedRunning(),
+                    passwordEncoder.getAverageHashMillis(), passwordEncoder.getAverageWaitMillis(), passwordEncoder.getEstimatedWaitMillis(),
+                    passwordEncoder.getRetryAfterSeconds()));
+        } catch (Exception ex) {
+            logger.error("Exception captured", ex);
+            response = ResponseEntity.internalServerError().build();
+        }
+        return response;
+    }
+
     @PostMapping(path = "/login", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest loginRequest) {
         ResponseEntity<LoginResponse> response = null;
@@ -156,6 +343,8 @@ public class UserManagementController {
             } else {
                 response = new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
             }
+        } catch (PasswordHashingRejectedException ex) {
+            response = ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, String.valueOf(passwordEncoder.getRetryAfterSeconds())).build();
         } catch (Exception ex) {
             logger.error("Exception captured");
             response = ResponseEntity.internalServerError().build();
@@ -163,4 +352,20 @@ public class UserManagementController {
         return response;
     }
 
+    @PostMapping(path = "/logout")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Void> logout(@RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String headerAuthorization) {
+        ResponseEntity<Void> response = null;
+        try {
+            userService.logout(headerAuthorization);
+            response = ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException ex) {
+            response = ResponseEntity.badRequest().build();
+        } catch (Exception ex) {
+            logger.error("Exception captured", ex);
+            response = ResponseEntity.internalServerError().build();
+        }
+        return response;
+    }
+
 }
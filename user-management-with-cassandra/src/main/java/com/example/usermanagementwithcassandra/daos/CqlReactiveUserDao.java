@@ -0,0 +1,83 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.cql.reactive.ReactiveRow;
+import com.example.usermanagementwithcassandra.entities.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+@Profile("reactive")
+public class CqlReactiveUserDao implements ReactiveUserDao {
+
+    private final CqlSession session;
+    private final UserStatements statements;
+
+    @Autowired
+    public CqlReactiveUserDao(CqlSession session) {
+        this.session = session;
+        this.statements = new UserStatements(session);
+    }
+
+    @Override
+    public Mono<User> findByUid(String uid) {
+        return Flux.from(session.executeReactive(statements.selectByUid(uid))).next().map(UserStatements::toUser);
+    }
+
+    @Override
+    public Mono<User> findByEmail(String email) {
+        return Flux.from(session.executeReactive(statements.selectByEmail(email))).next().map(UserStatements::toUser);
+    }
+
+    @Override
+    public Mono<Void> save(User user) {
+        return execute(statements.insertUser(user));
+    }
+
+    @Override
+    public Mono<Boolean> claimEmail(User user) {
+        return wasApplied(statements.claimEmail(user));
+    }
+
+    @Override
+    public Mono<Void> releaseEmail(String email, String uid) {
+        return execute(statements.releaseEmail(email, uid));
+    }
+
+    @Override
+    public Mono<Boolean> update(User user) {
+        return wasApplied(statements.updateEmailLookup(user))
+                .flatMap(applied -> applied ? execute(statements.updateUser(user)).thenReturn(true) : Mono.just(false));
+    }
+
+    @Override
+    public Mono<Void> move(User user, String previousEmail) {
+        return execute(statements.move(user, previousEmail))
+                .then(releaseEmail(previousEmail, user.getUid()));
+    }
+
+    @Override
+    public Mono<Boolean> patch(UserPatch patch) {
+        return Mono.fromCallable(() -> UserPatchStatements.updateEmailLookup(patch))
+                .flatMap(this::wasApplied)
+                .flatMap(applied -> applied ? execute(UserPatchStatements.updateUser(patch)).thenReturn(true) : Mono.just(false));
+    }
+
+    @Override
+    public Mono<Void> deleteByUid(String uid) {
+        return execute(statements.deleteByUid(uid));
+    }
+
+    private Mono<Void> execute(Statement<?> statement) {
+        return Flux.from(session.executeReactive(statement)).then();
+    }
+
+    // Conditional statements always answer with one row carrying [applied]
+    private Mono<Boolean> wasApplied(Statement<?> statement) {
+        return Flux.from(session.executeReactive(statement)).next().map(ReactiveRow::wasApplied);
+    }
+}
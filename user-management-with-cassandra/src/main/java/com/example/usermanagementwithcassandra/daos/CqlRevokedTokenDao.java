@@ -0,0 +1,67 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.example.usermanagementwithcassandra.utils.ExecutionProfiles;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Repository
+@Profile("!in-memory")
+public class CqlRevokedTokenDao implements RevokedTokenDao {
+
+    private final CqlSession session;
+    private final PreparedStatement insertRevocation;
+    private final PreparedStatement selectRevocation;
+    private final PreparedStatement selectAllIds;
+
+    @Value("${database.scan-page-size}")
+    private int scanPageSize;
+
+    @Autowired
+    public CqlRevokedTokenDao(CqlSession session) {
+        this.session = session;
+        this.insertRevocation = prepare("INSERT INTO revoked_tokens (id, revoked_at) VALUES (?, ?) USING TTL ?", ExecutionProfiles.WRITE);
+        // Quorum read, a LOCAL_ONE replica could still miss a logout that just happened
+        this.selectRevocation = prepare("SELECT revoked_at FROM revoked_tokens WHERE id = ?", ExecutionProfiles.WRITE);
+        // Scan timeout, but the write path's consistency so every acknowledged revocation is seen
+        this.selectAllIds = session.prepare(SimpleStatement.newInstance("SELECT id FROM revoked_tokens").setIdempotent(true)
+                .setExecutionProfileName(ExecutionProfiles.ADMIN_SCAN).setConsistencyLevel(DefaultConsistencyLevel.LOCAL_QUORUM));
+    }
+
+    @Override
+    public void revoke(String id, Instant revokedAt, Duration ttl) {
+        session.execute(insertRevocation.bind(id, revokedAt, (int) Math.max(1, ttl.toSeconds())));
+    }
+
+    @Override
+    public Optional<Instant> findRevokedAt(String id) {
+        Row row = session.execute(selectRevocation.bind(id)).one();
+        return Optional.ofNullable(row).map(it -> it.getInstant("revoked_at"));
+    }
+
+    @Override
+    public long forEachId(Consumer<String> consumer) {
+        long count = 0;
+        // The result set fetches the next page only when the current one is consumed
+        for(Row row : session.execute(selectAllIds.bind().setPageSize(scanPageSize))) {
+            consumer.accept(row.getString("id"));
+            count++;
+        }
+        return count;
+    }
+
+    private PreparedStatement prepare(String query, String executionProfile) {
+        return session.prepare(SimpleStatement.newInstance(query).setIdempotent(true).setExecutionProfileName(executionProfile));
+    }
+}
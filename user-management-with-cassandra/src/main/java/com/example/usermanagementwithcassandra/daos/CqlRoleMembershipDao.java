@@ -0,0 +1,62 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.example.usermanagementwithcassandra.utils.ExecutionProfiles;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Repository
+@Profile("!in-memory")
+public class CqlRoleMembershipDao implements RoleMembershipDao {
+
+    private final CqlSession session;
+    private final PreparedStatement insertMember;
+    private final PreparedStatement deleteMember;
+    private final PreparedStatement selectFirst;
+    private final PreparedStatement selectAfter;
+
+    @Autowired
+    public CqlRoleMembershipDao(CqlSession session) {
+        this.session = session;
+        this.insertMember = prepare("INSERT INTO users_by_role (role, uid) VALUES (?, ?)", ExecutionProfiles.WRITE);
+        this.deleteMember = prepare("DELETE FROM users_by_role WHERE role = ? AND uid = ?", ExecutionProfiles.WRITE);
+        this.selectFirst = prepare("SELECT uid FROM users_by_role WHERE role = ? LIMIT ?", ExecutionProfiles.ADMIN_SCAN);
+        this.selectAfter = prepare("SELECT uid FROM users_by_role WHERE role = ? AND uid > ? LIMIT ?", ExecutionProfiles.ADMIN_SCAN);
+    }
+
+    @Override
+    public CompletableFuture<Void> addMember(String uid, Collection<String> roles) {
+        return executeAll(roles, role -> insertMember.bind(role, uid));
+    }
+
+    @Override
+    public CompletableFuture<Void> removeMember(String uid, Collection<String> roles) {
+        return executeAll(roles, role -> deleteMember.bind(role, uid));
+    }
+
+    @Override
+    public List<String> findMemberUids(String role, int limit, String afterUid) {
+        BoundStatement statement = afterUid != null ? selectAfter.bind(role, afterUid, limit) : selectFirst.bind(role, limit);
+        return session.execute(statement).all().stream().map(row -> row.getString("uid")).collect(Collectors.toList());
+    }
+
+    private CompletableFuture<Void> executeAll(Collection<String> roles, Function<String, BoundStatement> statement) {
+        return CompletableFuture.allOf(roles.stream()
+                .map(role -> session.executeAsync(statement.apply(role)).toCompletableFuture())
+                .toArray(CompletableFuture[]::new));
+    }
+
+    private PreparedStatement prepare(String query, String executionProfile) {
+        return session.prepare(SimpleStatement.newInstance(query).setIdempotent(true).setExecutionProfileName(executionProfile));
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.example.usermanagementwithcassandra.entities.User;
+import com.example.usermanagementwithcassandra.utils.PagingCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+@Repository
+@Profile("!in-memory")
+@ConditionalOnProperty(name = "database.user-dao", havingValue = "cql")
+public class CqlUserDao implements UserDao {
+
+    private final CqlSession session;
+    private final UserStatements statements;
+
+    @Autowired
+    public CqlUserDao(CqlSession session) {
+        this.session = session;
+        this.statements = new UserStatements(session);
+    }
+
+    @Override
+    public Optional<User> findByUid(String uid) {
+        return Optional.ofNullable(session.execute(statements.selectByUid(uid)).one()).map(UserStatements::toUser);
+    }
+
+    @Override
+    public CompletableFuture<Optional<User>> findByUidAsync(String uid) {
+        return session.executeAsync(statements.selectByUid(uid))
+                .thenApply(resultSet -> Optional.ofNullable(resultSet.one()).map(UserStatements::toUser))
+                .toCompletableFuture();
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return Optional.ofNullable(session.execute(statements.selectByEmail(email)).one()).map(UserStatements::toUser);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return session.execute(statements.selectEmail(email)).one() != null;
+    }
+
+    @Override
+    public long count() {
+        return session.execute(statements.countAll()).one().getLong(0);
+    }
+
+    @Override
+    public UserPage findPage(int pageSize, String cursor) {
+        ResultSet resultSet = session.execute(statements.selectAll().setPageSize(pageSize).setPagingState(PagingCursor.decode(cursor)));
+        List<User> users = new ArrayList<>(resultSet.getAvailableWithoutFetching());
+        for(int remaining = resultSet.getAvailableWithoutFetching(); remaining > 0; remaining--) {
+            users.add(UserStatements.toUser(resultSet.one()));
+        }
+        return new UserPage(users, PagingCursor.encode(resultSet.getExecutionInfo().getPagingState()));
+    }
+
+    @Override
+    public Stream<User> streamAll(int pageSize) {
+        return StreamSupport.stream(session.execute(statements.selectAll().setPageSize(pageSize)).spliterator(), false).map(UserStatements::toUser);
+    }
+
+    @Override
+    public void save(User user) {
+        session.execute(statements.insertUser(user));
+    }
+
+    @Override
+    public void saveEmailLookup(User user) {
+        session.execute(statements.insertEmailLookup(user));
+    }
+
+    @Override
+    public boolean claimEmail(User user) {
+        return session.execute(statements.claimEmail(user)).wasApplied();
+    }
+
+    @Override
+    public void releaseEmail(String email, String uid) {
+        session.execute(statements.releaseEmail(email, uid));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> claimEmailAsync(User user) {
+        return session.executeAsync(statements.claimEmail(user))
+                .thenApply(AsyncResultSet::wasApplied)
+                .toCompletableFuture();
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(User user) {
+        return session.executeAsync(statements.insertUser(user))
+                .thenAccept(saved -> {})
+                .toCompletableFuture();
+    }
+
+    @Override
+    public boolean update(User user) {
+        boolean applied = session.execute(statements.updateEmailLookup(user)).wasApplied();
+        if(applied) {
+            session.execute(statements.updateUser(user));
+        }
+        return applied;
+    }
+
+    @Override
+    public void move(User user, String previousEmail) {
+        session.execute(statements.move(user, previousEmail));
+        releaseEmail(previousEmail, user.getUid());
+    }
+
+    @Override
+    public boolean patch(UserPatch patch) {
+        boolean applied = session.execute(UserPatchStatements.updateEmailLookup(patch)).wasApplied();
+        if(applied) {
+            session.execute(UserPatchStatements.updateUser(patch));
+        }
+        return applied;
+    }
+
+    @Override
+    public void deleteByUid(String uid) {
+        session.execute(statements.deleteByUid(uid));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.example.usermanagementwithcassandra.utils.ExecutionProfiles;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Repository
+@Profile("!in-memory")
+public class CqlUserSearchDao implements UserSearchDao {
+
+    private final CqlSession session;
+    private final PreparedStatement insertPrefix;
+    private final PreparedStatement deletePrefix;
+    private final PreparedStatement selectFirst;
+    private final PreparedStatement selectAfter;
+
+    @Autowired
+    public CqlUserSearchDao(CqlSession session) {
+        this.session = session;
+        this.insertPrefix = prepare("INSERT INTO users_by_prefix (prefix, uid) VALUES (?, ?)", ExecutionProfiles.WRITE);
+        this.deletePrefix = prepare("DELETE FROM users_by_prefix WHERE prefix = ? AND uid = ?", ExecutionProfiles.WRITE);
+        this.selectFirst = prepare("SELECT uid FROM users_by_prefix WHERE prefix = ? LIMIT ?", ExecutionProfiles.AUTH_READ);
+        this.selectAfter = prepare("SELECT uid FROM users_by_prefix WHERE prefix = ? AND uid > ? LIMIT ?", ExecutionProfiles.AUTH_READ);
+    }
+
+    @Override
+    public CompletableFuture<Void> index(String uid, Collection<String> prefixes) {
+        return executeAll(prefixes, prefix -> insertPrefix.bind(prefix, uid));
+    }
+
+    @Override
+    public CompletableFuture<Void> unindex(String uid, Collection<String> prefixes) {
+        return executeAll(prefixes, prefix -> deletePrefix.bind(prefix, uid));
+    }
+
+    @Override
+    public List<String> findUids(String prefix, int limit, String afterUid) {
+        BoundStatement statement = afterUid != null ? selectAfter.bind(prefix, afterUid, limit) : selectFirst.bind(prefix, limit);
+        return session.execute(statement).all().stream().map(row -> row.getString("uid")).collect(Collectors.toList());
+    }
+
+    // Each prefix is its own partition, so the writes go out concurrently instead of as a multi-partition batch
+    private CompletableFuture<Void> executeAll(Collection<String> prefixes, Function<String, BoundStatement> statement) {
+        return CompletableFuture.allOf(prefixes.stream()
+                .map(prefix -> session.executeAsync(statement.apply(prefix)).toCompletableFuture())
+                .toArray(CompletableFuture[]::new));
+    }
+
+    private PreparedStatement prepare(String query, String executionProfile) {
+        return session.prepare(SimpleStatement.newInstance(query).setIdempotent(true).setExecutionProfileName(executionProfile));
+    }
+}
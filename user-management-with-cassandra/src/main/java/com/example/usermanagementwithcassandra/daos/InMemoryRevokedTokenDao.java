@@ -0,0 +1,54 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+@Repository
+@Profile("in-memory")
+public class InMemoryRevokedTokenDao implements RevokedTokenDao {
+
+    private final Map<String, Revocation> revocations = new ConcurrentHashMap<>();
+
+    @Override
+    public void revoke(String id, Instant revokedAt, Duration ttl) {
+        revocations.put(id, new Revocation(revokedAt, Instant.now().plus(ttl)));
+    }
+
+    @Override
+    public Optional<Instant> findRevokedAt(String id) {
+        Revocation revocation = revocations.get(id);
+        if(revocation == null || revocation.expiresAt.isBefore(Instant.now())) {
+            return Optional.empty();
+        }
+        return Optional.of(revocation.revokedAt);
+    }
+
+    @Override
+    public long forEachId(Consumer<String> consumer) {
+        Instant now = Instant.now();
+        revocations.values().removeIf(revocation -> revocation.expiresAt.isBefore(now));
+        long count = 0;
+        for(String id : revocations.keySet()) {
+            consumer.accept(id);
+            count++;
+        }
+        return count;
+    }
+
+    private static class Revocation {
+        private final Instant revokedAt;
+        private final Instant expiresAt;
+
+        private Revocation(Instant revokedAt, Instant expiresAt) {
+            this.revokedAt = revokedAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
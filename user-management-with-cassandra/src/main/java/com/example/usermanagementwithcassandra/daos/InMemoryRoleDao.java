@@ -0,0 +1,27 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import com.example.usermanagementwithcassandra.entities.Role;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Repository
+@Profile("in-memory")
+public class InMemoryRoleDao implements RoleDao {
+
+    private final Map<String, Role> roles = new ConcurrentHashMap<>();
+
+    @Override
+    public List<Role> findAll() {
+        return roles.values().stream().map(it -> new Role(it.getUid(), it.getName())).collect(Collectors.toList());
+    }
+
+    @Override
+    public void save(Role role) {
+        roles.put(role.getName(), new Role(role.getUid(), role.getName()));
+    }
+}
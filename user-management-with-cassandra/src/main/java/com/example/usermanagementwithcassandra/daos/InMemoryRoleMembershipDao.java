@@ -0,0 +1,46 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+@Repository
+@Profile("in-memory")
+public class InMemoryRoleMembershipDao implements RoleMembershipDao {
+
+    private final Map<String, NavigableSet<String>> membersByRole = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<Void> addMember(String uid, Collection<String> roles) {
+        roles.forEach(role -> membersByRole.computeIfAbsent(role, key -> new ConcurrentSkipListSet<>()).add(uid));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> removeMember(String uid, Collection<String> roles) {
+        roles.forEach(role -> {
+            NavigableSet<String> members = membersByRole.get(role);
+            if(members != null) {
+                members.remove(uid);
+            }
+        });
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public List<String> findMemberUids(String role, int limit, String afterUid) {
+        NavigableSet<String> members = membersByRole.get(role);
+        if(members == null) {
+            return List.of();
+        }
+        return (afterUid != null ? members.tailSet(afterUid, false) : members).stream().limit(limit).collect(Collectors.toList());
+    }
+}
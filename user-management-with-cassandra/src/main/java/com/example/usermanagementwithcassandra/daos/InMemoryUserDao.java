@@ -0,0 +1,197 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import com.example.usermanagementwithcassandra.entities.User;
+import com.example.usermanagementwithcassandra.utils.PagingCursor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("in-memory")
+public class InMemoryUserDao implements UserDao {
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final Map<String, User> usersByUid = new ConcurrentHashMap<>();
+    private final Map<String, User> usersByEmail = new ConcurrentHashMap<>();
+    // Scan order for paging, the hash indexes above serve every point lookup
+    private final NavigableSet<String> uids = new ConcurrentSkipListSet<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public InMemoryUserDao() {
+        for(int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    @Override
+    public Optional<User> findByUid(String uid) {
+        return Optional.ofNullable(usersByUid.get(uid)).map(this::copy);
+    }
+
+    @Override
+    public CompletableFuture<Optional<User>> findByUidAsync(String uid) {
+        return CompletableFuture.completedFuture(findByUid(uid));
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return Optional.ofNullable(usersByEmail.get(email)).map(this::copy);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return usersByEmail.containsKey(email);
+    }
+
+    @Override
+    public long count() {
+        return usersByUid.size();
+    }
+
+    @Override
+    public UserPage findPage(int pageSize, String cursor) {
+        String after = PagingCursor.decodeKey(cursor);
+        Iterator<String> iterator = (after != null ? uids.tailSet(after, false) : uids).iterator();
+        List<User> users = new ArrayList<>(pageSize);
+        String last = null;
+        while(users.size() < pageSize && iterator.hasNext()) {
+            last = iterator.next();
+            User user = usersByUid.get(last);
+            if(user != null) {
+                users.add(copy(user));
+            }
+        }
+        String nextCursor = iterator.hasNext() ? PagingCursor.encodeKey(last) : null;
+        return new UserPage(users, nextCursor);
+    }
+
+    @Override
+    public Stream<User> streamAll(int pageSize) {
+        return uids.stream().map(usersByUid::get).filter(Objects::nonNull).map(this::copy);
+    }
+
+    @Override
+    public void save(User user) {
+        synchronized (lockFor(user.getUid())) {
+            usersByUid.put(user.getUid(), copy(user));
+            uids.add(user.getUid());
+        }
+    }
+
+    @Override
+    public void saveEmailLookup(User user) {
+        usersByEmail.put(user.getEmail(), copy(user));
+    }
+
+    @Override
+    public boolean claimEmail(User user) {
+        return usersByEmail.putIfAbsent(user.getEmail(), copy(user)) == null;
+    }
+
+    @Override
+    public void releaseEmail(String email, String uid) {
+        usersByEmail.computeIfPresent(email, (key, owner) -> Objects.equals(owner.getUid(), uid) ? null : owner);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> claimEmailAsync(User user) {
+        return CompletableFuture.completedFuture(claimEmail(user));
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(User user) {
+        save(user);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public boolean update(User user) {
+        synchronized (lockFor(user.getUid())) {
+            User lookup = usersByEmail.computeIfPresent(user.getEmail(), (email, owner) -> Objects.equals(owner.getUid(), user.getUid()) ? copy(user) : owner);
+            boolean applied = lookup != null && Objects.equals(lookup.getUid(), user.getUid());
+            if(applied) {
+                usersByUid.put(user.getUid(), copy(user));
+                uids.add(user.getUid());
+            }
+            return applied;
+        }
+    }
+
+    @Override
+    public void move(User user, String previousEmail) {
+        synchronized (lockFor(user.getUid())) {
+            usersByEmail.computeIfPresent(previousEmail, (email, owner) -> Objects.equals(owner.getUid(), user.getUid()) ? null : owner);
+            usersByUid.put(user.getUid(), copy(user));
+            uids.add(user.getUid());
+        }
+    }
+
+    @Override
+    public boolean patch(UserPatch patch) {
+        patch.requireSingleRolesOperation();
+        synchronized (lockFor(patch.getUid())) {
+            User lookup = usersByEmail.computeIfPresent(patch.getEmail(), (email, current) -> Objects.equals(current.getUid(), patch.getUid()) ? apply(patch, current) : current);
+            boolean applied = lookup != null && Objects.equals(lookup.getUid(), patch.getUid());
+            if(applied) {
+                usersByUid.compute(patch.getUid(), (uid, current) -> apply(patch, current));
+                uids.add(patch.getUid());
+            }
+            return applied;
+        }
+    }
+
+    @Override
+    public void deleteByUid(String uid) {
+        synchronized (lockFor(uid)) {
+            usersByUid.remove(uid);
+            uids.remove(uid);
+        }
+    }
+
+    private Object lockFor(String uid) {
+        return locks[Math.floorMod(uid.hashCode(), locks.length)];
+    }
+
+    private User apply(UserPatch patch, User current) {
+        User user = current != null ? copy(current) : new User(patch.getUid(), null, null, patch.getEmail(), null, null);
+        user.setUid(patch.getUid());
+        if(patch.getFirstName() != null) {
+            user.setFirstName(patch.getFirstName());
+        }
+        if(patch.getLastName() != null) {
+            user.setLastName(patch.getLastName());
+        }
+        if(patch.getProtectedPassword() != null) {
+            user.setProtectedPassword(patch.getProtectedPassword());
+        }
+        Set<String> roles = user.getRoles() != null ? user.getRoles() : new HashSet<>();
+        if(patch.getRoles() != null) {
+            roles = new HashSet<>(patch.getRoles());
+        } else if(patch.hasAddedRoles()) {
+            roles.addAll(patch.getAddedRoles());
+        } else if(patch.hasRemovedRoles()) {
+            roles.removeAll(patch.getRemovedRoles());
+        }
+        user.setRoles(roles);
+        return user;
+    }
+
+    private User copy(User user) {
+        return new User(user.getUid(), user.getFirstName(), user.getLastName(), user.getEmail(), user.getProtectedPassword(),
+                user.getRoles() != null ? new HashSet<>(user.getRoles()) : null);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+@Repository
+@Profile("in-memory")
+public class InMemoryUserSearchDao implements UserSearchDao {
+
+    private final Map<String, NavigableSet<String>> uidsByPrefix = new ConcurrentHashMap<>();
+
+    @Override
+    public CompletableFuture<Void> index(String uid, Collection<String> prefixes) {
+        prefixes.forEach(prefix -> uidsByPrefix.compute(prefix, (key, uids) -> {
+            NavigableSet<String> indexed = uids != null ? uids : new ConcurrentSkipListSet<>();
+            indexed.add(uid);
+            return indexed;
+        }));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> unindex(String uid, Collection<String> prefixes) {
+        prefixes.forEach(prefix -> uidsByPrefix.computeIfPresent(prefix, (key, uids) -> {
+            uids.remove(uid);
+            return uids.isEmpty() ? null : uids;
+        }));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public List<String> findUids(String prefix, int limit, String afterUid) {
+        NavigableSet<String> uids = uidsByPrefix.get(prefix);
+        if(uids == null) {
+            return List.of();
+        }
+        return (afterUid != null ? uids.tailSet(afterUid, false) : uids).stream().limit(limit).collect(Collectors.toList());
+    }
+}
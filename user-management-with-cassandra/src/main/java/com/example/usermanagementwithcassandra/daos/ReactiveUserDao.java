@@ -0,0 +1,27 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import com.example.usermanagementwithcassandra.entities.User;
+import reactor.core.publisher.Mono;
+
+// Non-blocking counterpart of UserDao for the reactive profile, with the same lookup-first write rules
+public interface ReactiveUserDao {
+
+    Mono<User> findByUid(String uid);
+
+    Mono<User> findByEmail(String email);
+
+    Mono<Void> save(User user);
+
+    Mono<Boolean> claimEmail(User user);
+
+    Mono<Void> releaseEmail(String email, String uid);
+
+    Mono<Boolean> update(User user);
+
+    Mono<Void> move(User user, String previousEmail);
+
+    Mono<Boolean> patch(UserPatch patch);
+
+    Mono<Void> deleteByUid(String uid);
+
+}
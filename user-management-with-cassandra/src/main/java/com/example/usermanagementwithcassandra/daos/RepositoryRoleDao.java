@@ -0,0 +1,31 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import com.example.usermanagementwithcassandra.entities.Role;
+import com.example.usermanagementwithcassandra.repositories.RoleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+@Profile("!in-memory")
+public class RepositoryRoleDao implements RoleDao {
+
+    private final RoleRepository roleRepository;
+
+    @Autowired
+    public RepositoryRoleDao(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    @Override
+    public List<Role> findAll() {
+        return roleRepository.findAll();
+    }
+
+    @Override
+    public void save(Role role) {
+        roleRepository.save(role);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.example.usermanagementwithcassandra.entities.User;
+import com.example.usermanagementwithcassandra.entities.UserByEmail;
+import com.example.usermanagementwithcassandra.repositories.UserByEmailRepository;
+import com.example.usermanagementwithcassandra.repositories.UserRepository;
+import com.example.usermanagementwithcassandra.utils.ExecutionProfiles;
+import com.example.usermanagementwithcassandra.utils.PagingCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.core.AsyncCassandraOperations;
+import org.springframework.data.cassandra.core.CassandraOperations;
+import org.springframework.data.cassandra.core.DeleteOptions;
+import org.springframework.data.cassandra.core.InsertOptions;
+import org.springframework.data.cassandra.core.UpdateOptions;
+import org.springframework.data.cassandra.core.cql.QueryOptions;
+import org.springframework.data.cassandra.core.WriteResult;
+import org.springframework.data.cassandra.core.cql.WriteOptions;
+import org.springframework.data.cassandra.core.query.Criteria;
+import org.springframework.data.cassandra.core.query.Query;
+import org.springframework.data.cassandra.core.query.Update;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("!in-memory")
+@ConditionalOnProperty(name = "database.user-dao", havingValue = "repository", matchIfMissing = true)
+public class RepositoryUserDao implements UserDao {
+
+    private static final QueryOptions READ_OPTIONS = QueryOptions.builder().executionProfile(ExecutionProfiles.AUTH_READ).build();
+    private static final QueryOptions SCAN_OPTIONS = QueryOptions.builder().executionProfile(ExecutionProfiles.ADMIN_SCAN).build();
+    private static final InsertOptions INSERT_OPTIONS = InsertOptions.builder().executionProfile(ExecutionProfiles.WRITE).build();
+    private static final InsertOptions CLAIM_OPTIONS = InsertOptions.builder().executionProfile(ExecutionProfiles.EMAIL_CLAIM).withIfNotExists().build();
+    private static final UpdateOptions UPDATE_OPTIONS = UpdateOptions.builder().executionProfile(ExecutionProfiles.WRITE).build();
+    private static final WriteOptions DELETE_OPTIONS = WriteOptions.builder().executionProfile(ExecutionProfiles.WRITE).build();
+
+    private final UserRepository userRepository;
+    private final UserByEmailRepository userByEmailRepository;
+    private final CassandraOperations cassandraOperations;
+    private final AsyncCassandraOperations asyncCassandraOperations;
+
+    @Autowired
+    public RepositoryUserDao(UserRepository userRepository, UserByEmailRepository userByEmailRepository, CassandraOperations cassandraOperations, AsyncCassandraOperations asyncCassandraOperations) {
+        this.userRepository = userRepository;
+        this.userByEmailRepository = userByEmailRepository;
+        this.cassandraOperations = cassandraOperations;
+        this.asyncCassandraOperations = asyncCassandraOperations;
+    }
+
+    @Override
+    public Optional<User> findByUid(String uid) {
+        return userRepository.findByUid(uid, READ_OPTIONS);
+    }
+
+    @Override
+    public CompletableFuture<Optional<User>> findByUidAsync(String uid) {
+        Query query = Query.query(Criteria.where("uid").is(uid)).limit(1).queryOptions(READ_OPTIONS);
+        return asyncCassandraOperations.selectOne(query, User.class).thenApply(Optional::ofNullable);
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return userByEmailRepository.findByEmail(email, READ_OPTIONS).map(UserByEmail::toUser);
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return userByEmailRepository.findByEmail(email, READ_OPTIONS).isPresent();
+    }
+
+    @Override
+    public long count() {
+        return userRepository.count();
+    }
+
+    @Override
+    public UserPage findPage(int pageSize, String cursor) {
+        Query query = Query.empty().pageRequest(PagingCursor.toPageable(pageSize, cursor)).queryOptions(SCAN_OPTIONS);
+        Slice<User> users = cassandraOperations.slice(query, User.class);
+        return new UserPage(users.getContent(), users.hasNext() ? PagingCursor.fromPageable(users.nextPageable()) : null);
+    }
+
+    @Override
+    public Stream<User> streamAll(int pageSize) {
+        Query query = Query.empty().queryOptions(QueryOptions.builder().executionProfile(ExecutionProfiles.ADMIN_SCAN).pageSize(pageSize).build());
+        return cassandraOperations.stream(query, User.class);
+    }
+
+    @Override
+    public void save(User user) {
+        cassandraOperations.insert(user, INSERT_OPTIONS);
+    }
+
+    @Override
+    public void saveEmailLookup(User user) {
+        cassandraOperations.insert(new UserByEmail(user), INSERT_OPTIONS);
+    }
+
+    @Override
+    public boolean claimEmail(User user) {
+        return cassandraOperations.insert(new UserByEmail(user), CLAIM_OPTIONS).wasApplied();
+    }
+
+    @Override
+    public void releaseEmail(String email, String uid) {
+        DeleteOptions options = DeleteOptions.builder().executionProfile(ExecutionProfiles.EMAIL_CLAIM).ifCondition(Criteria.where("uid").is(uid)).build();
+        cassandraOperations.delete(Query.query(Criteria.where("email").is(email)).queryOptions(options), UserByEmail.class);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> claimEmailAsync(User user) {
+        return asyncCassandraOperations.insert(new UserByEmail(user), CLAIM_OPTIONS).thenApply(WriteResult::wasApplied);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveAsync(User user) {
+        return asyncCassandraOperations.insert(user, INSERT_OPTIONS).thenAccept(saved -> {});
+    }
+
+    @Override
+    public boolean update(User user) {
+        Update update = Update.empty()
+                .set("firstName", user.getFirstName())
+                .set("lastName", user.getLastName())
+                .set("protectedPassword", user.getProtectedPassword())
+                .set("roles", user.getRoles());
+        UpdateOptions lookupOptions = UpdateOptions.builder().executionProfile(ExecutionProfiles.EMAIL_CLAIM).ifCondition(Criteria.where("uid").is(user.getUid())).build();
+        boolean applied = cassandraOperations.update(Query.query(Criteria.where("email").is(user.getEmail())).queryOptions(lookupOptions), update, UserByEmail.class);
+        if(applied) {
+            cassandraOperations.update(Query.query(Criteria.where("uid").is(user.getUid()), Criteria.where("email").is(user.getEmail())).queryOptions(UPDATE_OPTIONS), update, User.class);
+        }
+        return applied;
+    }
+
+    @Override
+    public void move(User user, String previousEmail) {
+        // batchOps() has no execution profile, so the batch is built on the driver statement. The old lookup is released
+        // on its own since a conditional delete can't join a multi-partition batch
+        BatchStatement batch = BatchStatement.newInstance(DefaultBatchType.LOGGED,
+                        SimpleStatement.newInstance("DELETE FROM users WHERE uid = ? AND email = ?", user.getUid(), previousEmail),
+                        SimpleStatement.newInstance("INSERT INTO users (uid, email, first_name, last_name, protected_password, roles) VALUES (?, ?, ?, ?, ?, ?)",
+                                user.getUid(), user.getEmail(), user.getFirstName(), user.getLastName(), user.getProtectedPassword(), user.getRoles()))
+                .setIdempotent(true)
+                .setExecutionProfileName(ExecutionProfiles.WRITE);
+        cassandraOperations.getCqlOperations().execute(batch);
+        releaseEmail(previousEmail, user.getUid());
+    }
+
+    @Override
+    public boolean patch(UserPatch patch) {
+        boolean applied = cassandraOperations.getCqlOperations().execute(UserPatchStatements.updateEmailLookup(patch));
+        if(applied) {
+            cassandraOperations.getCqlOperations().execute(UserPatchStatements.updateUser(patch));
+        }
+        return applied;
+    }
+
+    @Override
+    public void deleteByUid(String uid) {
+        cassandraOperations.delete(Query.query(Criteria.where("uid").is(uid)).queryOptions(DELETE_OPTIONS), User.class);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface RevokedTokenDao {
+
+    void revoke(String id, Instant revokedAt, Duration ttl);
+
+    Optional<Instant> findRevokedAt(String id);
+
+    long forEachId(Consumer<String> consumer);
+
+}
@@ -0,0 +1,13 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import com.example.usermanagementwithcassandra.entities.Role;
+
+import java.util.List;
+
+public interface RoleDao {
+
+    List<Role> findAll();
+
+    void save(Role role);
+
+}
@@ -0,0 +1,15 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface RoleMembershipDao {
+
+    CompletableFuture<Void> addMember(String uid, Collection<String> roles);
+
+    CompletableFuture<Void> removeMember(String uid, Collection<String> roles);
+
+    List<String> findMemberUids(String role, int limit, String afterUid);
+
+}
@@ -0,0 +1,61 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import com.example.usermanagementwithcassandra.entities.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public interface UserDao {
+
+    Optional<User> findByUid(String uid);
+
+    CompletableFuture<Optional<User>> findByUidAsync(String uid);
+
+    default List<User> findByUids(List<String> uids, int maxConcurrency) {
+        Semaphore inFlight = new Semaphore(maxConcurrency);
+        List<CompletableFuture<Optional<User>>> pending = new ArrayList<>(uids.size());
+        for(String uid : uids) {
+            inFlight.acquireUninterruptibly();
+            pending.add(findByUidAsync(uid).whenComplete((user, ex) -> inFlight.release()));
+        }
+        return pending.stream().map(CompletableFuture::join).flatMap(Optional::stream).collect(Collectors.toList());
+    }
+
+    Optional<User> findByEmail(String email);
+
+    boolean existsByEmail(String email);
+
+    long count();
+
+    UserPage findPage(int pageSize, String cursor);
+
+    Stream<User> streamAll(int pageSize);
+
+    void save(User user);
+
+    void saveEmailLookup(User user);
+
+    boolean claimEmail(User user);
+
+    void releaseEmail(String email, String uid);
+
+    CompletableFuture<Boolean> claimEmailAsync(User user);
+
+    CompletableFuture<Void> saveAsync(User user);
+
+    // Lookup writes are conditional on the uid still owning the email, false when a delete or move got there first.
+    // The lookup goes first and gates the users row, login reads it, and a condition can't join a multi-table batch
+    boolean update(User user);
+
+    void move(User user, String previousEmail);
+
+    boolean patch(UserPatch patch);
+
+    void deleteByUid(String uid);
+
+}
@@ -0,0 +1,42 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import lombok.*;
+
+import java.util.Set;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class UserPatch {
+    private String uid;
+    private String email;
+    private String firstName;
+    private String lastName;
+    private String protectedPassword;
+    private Set<String> roles;
+    private Set<String> addedRoles;
+    private Set<String> removedRoles;
+
+    public boolean isEmpty() {
+        return firstName == null && lastName == null && protectedPassword == null && roles == null
+                && !hasAddedRoles() && !hasRemovedRoles();
+    }
+
+    public boolean hasAddedRoles() {
+        return addedRoles != null && !addedRoles.isEmpty();
+    }
+
+    public boolean hasRemovedRoles() {
+        return removedRoles != null && !removedRoles.isEmpty();
+    }
+
+    // A single CQL update can carry only one operation on the roles column
+    public void requireSingleRolesOperation() {
+        int operations = (roles != null ? 1 : 0) + (hasAddedRoles() ? 1 : 0) + (hasRemovedRoles() ? 1 : 0);
+        if(operations > 1) {
+            throw new IllegalArgumentException("A patch can either set, add or remove roles, not combine them");
+        }
+    }
+}
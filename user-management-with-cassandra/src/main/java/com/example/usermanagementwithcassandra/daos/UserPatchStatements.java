@@ -0,0 +1,69 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.querybuilder.QueryBuilder;
+import com.datastax.oss.driver.api.querybuilder.relation.Relation;
+import com.datastax.oss.driver.api.querybuilder.update.Assignment;
+import com.example.usermanagementwithcassandra.utils.ExecutionProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class UserPatchStatements {
+
+    private UserPatchStatements() {
+    }
+
+    static SimpleStatement updateUser(UserPatch patch) {
+        List<Object> values = new ArrayList<>();
+        List<Assignment> assignments = assignments(patch, values);
+        values.add(patch.getUid());
+        values.add(patch.getEmail());
+        return QueryBuilder.update("users").set(assignments)
+                .where(Relation.column("uid").isEqualTo(QueryBuilder.bindMarker()), Relation.column("email").isEqualTo(QueryBuilder.bindMarker()))
+                .build(values.toArray())
+                .setIdempotent(true)
+                .setExecutionProfileName(ExecutionProfiles.WRITE);
+    }
+
+    static SimpleStatement updateEmailLookup(UserPatch patch) {
+        List<Object> values = new ArrayList<>();
+        List<Assignment> assignments = assignments(patch, values);
+        values.add(patch.getEmail());
+        values.add(patch.getUid());
+        return QueryBuilder.update("users_by_email").set(assignments)
+                .where(Relation.column("email").isEqualTo(QueryBuilder.bindMarker()))
+                .ifColumn("uid").isEqualTo(QueryBuilder.bindMarker())
+                .build(values.toArray())
+                .setIdempotent(false)
+                .setExecutionProfileName(ExecutionProfiles.EMAIL_CLAIM);
+    }
+
+    private static List<Assignment> assignments(UserPatch patch, List<Object> values) {
+        patch.requireSingleRolesOperation();
+        List<Assignment> assignments = new ArrayList<>();
+        if(patch.getFirstName() != null) {
+            assignments.add(Assignment.setColumn("first_name", QueryBuilder.bindMarker()));
+            values.add(patch.getFirstName());
+        }
+        if(patch.getLastName() != null) {
+            assignments.add(Assignment.setColumn("last_name", QueryBuilder.bindMarker()));
+            values.add(patch.getLastName());
+        }
+        if(patch.getProtectedPassword() != null) {
+            assignments.add(Assignment.setColumn("protected_password", QueryBuilder.bindMarker()));
+            values.add(patch.getProtectedPassword());
+        }
+        if(patch.getRoles() != null) {
+            assignments.add(Assignment.setColumn("roles", QueryBuilder.bindMarker()));
+            values.add(patch.getRoles());
+        } else if(patch.hasAddedRoles()) {
+            assignments.add(Assignment.append("roles", QueryBuilder.bindMarker()));
+            values.add(patch.getAddedRoles());
+        } else if(patch.hasRemovedRoles()) {
+            assignments.add(Assignment.remove("roles", QueryBuilder.bindMarker()));
+            values.add(patch.getRemovedRoles());
+        }
+        return assignments;
+    }
+}
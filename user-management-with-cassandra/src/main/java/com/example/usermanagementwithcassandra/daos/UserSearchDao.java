@@ -0,0 +1,15 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+public interface UserSearchDao {
+
+    CompletableFuture<Void> index(String uid, Collection<String> prefixes);
+
+    CompletableFuture<Void> unindex(String uid, Collection<String> prefixes);
+
+    List<String> findUids(String prefix, int limit, String afterUid);
+
+}
@@ -0,0 +1,117 @@
+package com.example.usermanagementwithcassandra.daos;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.example.usermanagementwithcassandra.entities.User;
+import com.example.usermanagementwithcassandra.utils.ExecutionProfiles;
+
+// Prepared statements on users and users_by_email, shared by the blocking and the reactive CQL DAOs
+final class UserStatements {
+
+    private static final String USER_COLUMNS = "uid, email, first_name, last_name, protected_password, roles";
+
+    private final CqlSession session;
+    private final PreparedStatement selectByUid;
+    private final PreparedStatement selectByEmail;
+    private final PreparedStatement selectEmail;
+    private final PreparedStatement selectAll;
+    private final PreparedStatement countAll;
+    private final PreparedStatement insertUser;
+    private final PreparedStatement insertEmailLookup;
+    private final PreparedStatement claimEmail;
+    private final PreparedStatement releaseEmail;
+    private final PreparedStatement updateUser;
+    private final PreparedStatement updateEmailLookup;
+    private final PreparedStatement deleteUserRow;
+    private final PreparedStatement deleteByUid;
+
+    UserStatements(CqlSession session) {
+        this.session = session;
+        this.selectByUid = prepare("SELECT " + USER_COLUMNS + " FROM users WHERE uid = ? LIMIT 1", ExecutionProfiles.AUTH_READ);
+        this.selectByEmail = prepare("SELECT " + USER_COLUMNS + " FROM users_by_email WHERE email = ?", ExecutionProfiles.AUTH_READ);
+        this.selectEmail = prepare("SELECT email FROM users_by_email WHERE email = ?", ExecutionProfiles.AUTH_READ);
+        this.selectAll = prepare("SELECT " + USER_COLUMNS + " FROM users", ExecutionProfiles.ADMIN_SCAN);
+        this.countAll = prepare("SELECT COUNT(*) FROM users", ExecutionProfiles.ADMIN_SCAN);
+        this.insertUser = prepare("INSERT INTO users (" + USER_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)", ExecutionProfiles.WRITE);
+        this.insertEmailLookup = prepare("INSERT INTO users_by_email (" + USER_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)", ExecutionProfiles.WRITE);
+        this.claimEmail = prepare("INSERT INTO users_by_email (" + USER_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?) IF NOT EXISTS", ExecutionProfiles.EMAIL_CLAIM, false);
+        this.releaseEmail = prepare("DELETE FROM users_by_email WHERE email = ? IF uid = ?", ExecutionProfiles.EMAIL_CLAIM, false);
+        this.updateUser = prepare("UPDATE users SET first_name = ?, last_name = ?, protected_password = ?, roles = ? WHERE uid = ? AND email = ?", ExecutionProfiles.WRITE);
+        this.updateEmailLookup = prepare("UPDATE users_by_email SET first_name = ?, last_name = ?, protected_password = ?, roles = ? WHERE email = ? IF uid = ?", ExecutionProfiles.EMAIL_CLAIM, false);
+        this.deleteUserRow = prepare("DELETE FROM users WHERE uid = ? AND email = ?", ExecutionProfiles.WRITE);
+        this.deleteByUid = prepare("DELETE FROM users WHERE uid = ?", ExecutionProfiles.WRITE);
+    }
+
+    BoundStatement selectByUid(String uid) {
+        return selectByUid.bind(uid);
+    }
+
+    BoundStatement selectByEmail(String email) {
+        return selectByEmail.bind(email);
+    }
+
+    BoundStatement selectEmail(String email) {
+        return selectEmail.bind(email);
+    }
+
+    BoundStatement selectAll() {
+        return selectAll.bind();
+    }
+
+    BoundStatement countAll() {
+        return countAll.bind();
+    }
+
+    BoundStatement insertUser(User user) {
+        return insertUser.bind(user.getUid(), user.getEmail(), user.getFirstName(), user.getLastName(), user.getProtectedPassword(), user.getRoles());
+    }
+
+    BoundStatement insertEmailLookup(User user) {
+        return insertEmailLookup.bind(user.getUid(), user.getEmail(), user.getFirstName(), user.getLastName(), user.getProtectedPassword(), user.getRoles());
+    }
+
+    BoundStatement claimEmail(User user) {
+        return claimEmail.bind(user.getUid(), user.getEmail(), user.getFirstName(), user.getLastName(), user.getProtectedPassword(), user.getRoles());
+    }
+
+    BoundStatement releaseEmail(String email, String uid) {
+        return releaseEmail.bind(email, uid);
+    }
+
+    BoundStatement updateUser(User user) {
+        return updateUser.bind(user.getFirstName(), user.getLastName(), user.getProtectedPassword(), user.getRoles(), user.getUid(), user.getEmail());
+    }
+
+    BoundStatement updateEmailLookup(User user) {
+        return updateEmailLookup.bind(user.getFirstName(), user.getLastName(), user.getProtectedPassword(), user.getRoles(), user.getEmail(), user.getUid());
+    }
+
+    BoundStatement deleteByUid(String uid) {
+        return deleteByUid.bind(uid);
+    }
+
+    // Both rows live in the uid partition; the old lookup is released on its own since a conditional delete can't join a multi-partition batch
+    BatchStatement move(User user, String previousEmail) {
+        return BatchStatement.newInstance(DefaultBatchType.LOGGED, deleteUserRow.bind(user.getUid(), previousEmail), insertUser(user))
+                .setIdempotent(true)
+                .setExecutionProfileName(ExecutionProfiles.WRITE);
+    }
+
+    static User toUser(Row row) {
+        return new User(row.getString("uid"), row.getString("first_name"), row.getString("last_name"),
+                row.getString("email"), row.getString("protected_password"), row.getSet("roles", String.class));
+    }
+
+    private PreparedStatement prepare(String query, String executionProfile) {
+        return prepare(query, executionProfile, true);
+    }
+
+    private PreparedStatement prepare(String query, String executionProfile, boolean idempotent) {
+        return session.prepare(SimpleStatement.newInstance(query).setIdempotent(idempotent).setExecutionProfileName(executionProfile));
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.usermanagementwithcassandra.dtos;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class BulkImportItemResult {
+    public enum Status { CREATED, CONFLICT, DUPLICATE, INVALID, FAILED }
+
+    private int index;
+    private String email;
+    private Status status;
+    private String uid;
+}
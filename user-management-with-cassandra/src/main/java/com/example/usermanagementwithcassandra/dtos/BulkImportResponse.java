@@ -0,0 +1,19 @@
+package com.example.usermanagementwithcassandra.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class BulkImportResponse {
+    private int total;
+    private int created;
+    private int rejected;
+    private long elapsedMillis;
+    private double usersPerSecond;
+    private List<BulkImportItemResult> items;
+}
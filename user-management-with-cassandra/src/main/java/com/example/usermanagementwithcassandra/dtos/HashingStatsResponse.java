@@ -0,0 +1,23 @@
+package com.example.usermanagementwithcassandra.dtos;
+
+import lombok.*;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class HashingStatsResponse {
+    private int poolSize;
+    private int active;
+    private int queueDepth;
+    private int queueCapacity;
+    private long completed;
+    private long rejected;
+    private long abandoned;
+    private int abandonedRunning;
+    private double averageHashMillis;
+    private double averageWaitMillis;
+    private double estimatedWaitMillis;
+    private long retryAfterSeconds;
+}
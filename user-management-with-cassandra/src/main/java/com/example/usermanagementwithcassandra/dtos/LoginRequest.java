@@ -2,7 +2,7 @@ package com.example.usermanagementwithcassandra.dtos;
 
 import lombok.*;
 
-import javax.validation.constraints.NotNull;
+import jakarta.validation.constraints.NotNull;
 
 @Getter
 @Setter
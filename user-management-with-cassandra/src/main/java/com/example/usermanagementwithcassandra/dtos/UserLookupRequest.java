@@ -0,0 +1,16 @@
+package com.example.usermanagementwithcassandra.dtos;
+
+import lombok.*;
+
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class UserLookupRequest {
+    @NotEmpty(message = "Uids cannot be empty")
+    private List<String> uids;
+}
@@ -0,0 +1,15 @@
+package com.example.usermanagementwithcassandra.dtos;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class UserPageResponse {
+    private List<UserResponse> users;
+    private String cursor;
+}
@@ -0,0 +1,27 @@
+package com.example.usermanagementwithcassandra.dtos;
+
+import lombok.*;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Pattern;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+public class UserPatchRequest {
+    @Pattern(regexp = ".*\\S.*", message = "First name cannot be blank")
+    private String firstName;
+    @Pattern(regexp = ".*\\S.*", message = "Last name cannot be blank")
+    private String lastName;
+    @Email(message = "Email must be a valid address")
+    @Pattern(regexp = ".*\\S.*", message = "Email cannot be blank")
+    private String email;
+    @Pattern(regexp = ".*\\S.*", message = "Password cannot be blank")
+    private String password;
+    private List<String> roles;
+    private List<String> addRoles;
+    private List<String> removeRoles;
+}
@@ -2,7 +2,9 @@ package com.example.usermanagementwithcassandra.dtos;
 
 import lombok.*;
 
-import javax.validation.constraints.NotNull;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.groups.Default;
 import java.util.List;
 
 @Getter
@@ -11,13 +13,17 @@ import java.util.List;
 @AllArgsConstructor
 @ToString
 public class UserRequest {
+    // Creation requires a password; an edit without one keeps the stored hash
+    public interface Create extends Default {}
+
     @NotNull(message = "First name cannot be empty")
     private String firstName;
     @NotNull(message = "Last name cannot be empty")
     private String lastName;
     @NotNull(message = "Email cannot be empty")
     private String email;
-    @NotNull(message = "Password cannot be empty")
+    @NotNull(message = "Password cannot be empty", groups = Create.class)
+    @Pattern(regexp = ".*\\S.*", message = "Password cannot be blank")
     private String password;
     private List<String> roles;
 }
@@ -26,7 +26,6 @@ public class User {
     @Column("last_name")
     private String lastName;
     @PrimaryKeyColumn(name = "email", ordinal = 1, type = PrimaryKeyType.CLUSTERED)
-    @Indexed
     private String email;
     @Column("protected_password")
     private String protectedPassword;
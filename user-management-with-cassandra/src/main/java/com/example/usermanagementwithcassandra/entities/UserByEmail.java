@@ -0,0 +1,44 @@
+package com.example.usermanagementwithcassandra.entities;
+
+import lombok.*;
+import org.springframework.data.cassandra.core.cql.PrimaryKeyType;
+import org.springframework.data.cassandra.core.mapping.Column;
+import org.springframework.data.cassandra.core.mapping.PrimaryKeyColumn;
+import org.springframework.data.cassandra.core.mapping.Table;
+
+import java.util.Set;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+@ToString
+@Table("users_by_email")
+public class UserByEmail {
+    @PrimaryKeyColumn(name = "email", ordinal = 0, type = PrimaryKeyType.PARTITIONED)
+    private String email;
+    @Column("uid")
+    private String uid;
+    @Column("first_name")
+    private String firstName;
+    @Column("last_name")
+    private String lastName;
+    @Column("protected_password")
+    private String protectedPassword;
+    @Column("roles")
+    private Set<String> roles;
+
+    public UserByEmail(User user) {
+        this.email = user.getEmail();
+        this.uid = user.getUid();
+        this.firstName = user.getFirstName();
+        this.lastName = user.getLastName();
+        this.protectedPassword = user.getProtectedPassword();
+        this.roles = user.getRoles();
+    }
+
+    public User toUser() {
+        return new User(uid, firstName, lastName, email, protectedPassword, roles);
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.usermanagementwithcassandra.mappers;
+
+import com.example.usermanagementwithcassandra.dtos.UserRequest;
+import com.example.usermanagementwithcassandra.dtos.UserResponse;
+import com.example.usermanagementwithcassandra.entities.User;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+@Mapper(componentModel = "spring")
+public interface UserMapper {
+
+    UserResponse toResponse(User user);
+
+    @Mapping(target = "uid", ignore = true)
+    @Mapping(target = "protectedPassword", ignore = true)
+    User toUser(UserRequest userRequest);
+
+}
@@ -0,0 +1,17 @@
+package com.example.usermanagementwithcassandra.repositories;
+
+import com.example.usermanagementwithcassandra.entities.UserByEmail;
+import org.springframework.data.cassandra.core.cql.QueryOptions;
+import org.springframework.data.cassandra.repository.CassandraRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserByEmailRepository extends CassandraRepository<UserByEmail, String> {
+
+    Optional<UserByEmail> findByEmail(String email);
+
+    Optional<UserByEmail> findByEmail(String email, QueryOptions options);
+
+}
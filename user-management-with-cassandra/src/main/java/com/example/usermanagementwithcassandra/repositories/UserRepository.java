@@ -1,6 +1,7 @@
 package com.example.usermanagementwithcassandra.repositories;
 
 import com.example.usermanagementwithcassandra.entities.User;
+import org.springframework.data.cassandra.core.cql.QueryOptions;
 import org.springframework.data.cassandra.repository.CassandraRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,8 +12,8 @@ public interface UserRepository extends CassandraRepository<User, String> {
 
     Optional<User> findByUid(String uid);
 
-    boolean deleteByUid(String uid);
+    Optional<User> findByUid(String uid, QueryOptions options);
 
-    Optional<User> findByEmail(String email);
+    boolean deleteByUid(String uid);
 
 }
@@ -1,56 +1,58 @@
 package com.example.usermanagementwithcassandra.security;
 
-import com.example.usermanagementwithcassandra.entities.User;
+import com.example.usermanagementwithcassandra.services.TokenRevocationService;
 import com.example.usermanagementwithcassandra.services.UserService;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.stereotype.Component;
 
-import javax.servlet.FilterChain;
-import javax.servlet.ServletException;
-import javax.servlet.http.HttpServletRequest;
-import javax.servlet.http.HttpServletResponse;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.List;
-import java.util.stream.Collectors;
 
 @Component
+@Profile("!reactive")
 public class AuthorizationFilter extends BasicAuthenticationFilter {
 
     private final Logger logger = LoggerFactory.getLogger(AuthorizationFilter.class);
     private final UserService userService;
+    private final PrincipalCache principalCache;
+    private final TokenProvider tokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+    private final Counter successCounter;
+    private final Counter failureCounter;
 
-    @Value("${security.token-key}")
-    private String tokenKey;
-    @Value("${security.token-type}")
-    private String tokenType;
-    @Value("${security.separator}")
-    private String separator;
-
-    public AuthorizationFilter(AuthenticationManager authenticationManager, @Lazy UserService userService) {
+    public AuthorizationFilter(AuthenticationManager authenticationManager, @Lazy UserService userService, PrincipalCache principalCache, TokenProvider tokenProvider, TokenRevocationService tokenRevocationService, MeterRegistry meterRegistry) {
         super(authenticationManager);
         this.userService = userService;
+        this.principalCache = principalCache;
+        this.tokenProvider = tokenProvider;
+        this.tokenRevocationService = tokenRevocationService;
+        this.successCounter = meterRegistry.counter("authentication.token", "result", "success");
+        this.failureCounter = meterRegistry.counter("authentication.token", "result", "failure");
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws IOException, ServletException {
         String headerAuthorization = request.getHeader(HttpHeaders.AUTHORIZATION);
-        if(headerAuthorization != null && headerAuthorization.startsWith(tokenType)) {
+        if(tokenProvider.hasTokenType(headerAuthorization)) {
             UsernamePasswordAuthenticationToken authentication = getAuthentication(request);
             if(authentication != null) {
+                successCounter.increment();
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             } else {
+                failureCounter.increment();
                 // Don't accept wrong credentials
                 response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                 return;
@@ -61,20 +63,13 @@ public class AuthorizationFilter extends BasicAuthenticationFilter {
 
     private UsernamePasswordAuthenticationToken getAuthentication(HttpServletRequest request) {
         String headerAuthorization = request.getHeader(HttpHeaders.AUTHORIZATION);
-        String token = headerAuthorization.replace(tokenType, "");
         UsernamePasswordAuthenticationToken authentication = null;
         try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(tokenKey)
-                    .parseClaimsJws(token)
-                    .getBody();
-            String[] subjectData = claims.getSubject().split(separator);
-            if(subjectData.length == 2 && subjectData[0] != null && subjectData[1] != null) {
-                String email = subjectData[1];
-                User user = userService.getUserByEmail(email);
-                if(user != null) {
-                    List<GrantedAuthority> authorities = user.getRoles().stream().map(SimpleGrantedAuthority::new).collect(Collectors.toList());
-                    authentication = new UsernamePasswordAuthenticationToken(user, null, authorities);
+            TokenProvider.VerifiedToken token = tokenProvider.verify(headerAuthorization);
+            if(token.getEmail() != null && !tokenRevocationService.isRevoked(token)) {
+                PrincipalCache.CachedPrincipal principal = principalCache.get(token.getEmail(), userService::getUserByEmail);
+                if(principal != null) {
+                    authentication = new UsernamePasswordAuthenticationToken(principal.getUser(), null, principal.getAuthorities());
                 }
             }
         } catch (Exception ex) {
@@ -0,0 +1,245 @@
+package com.example.usermanagementwithcassandra.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final int QUEUED = 0;
+    private static final int RUNNING = 1;
+    private static final int DONE = 2;
+    private static final int DROPPED = 3;
+    private static final int ABANDONED = 4;
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final long timeout;
+    private final long retryAfter;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final AtomicInteger abandonedRunning = new AtomicInteger();
+    private final LongAdder hashCount = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer encodeWaitTimer;
+    private final Timer matchesWaitTimer;
+    private final Counter rejectedCounter;
+    private final Counter abandonedCounter;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, long timeout, long retryAfter, MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hashing-"), new ThreadPoolExecutor.AbortPolicy());
+        this.queueCapacity = queueCapacity;
+        this.timeout = timeout;
+        this.retryAfter = retryAfter;
+        this.encodeTimer = meterRegistry.timer("password.hashing", "operation", "encode");
+        this.matchesTimer = meterRegistry.timer("password.hashing", "operation", "matches");
+        this.encodeWaitTimer = meterRegistry.timer("password.hashing.wait", "operation", "encode");
+        this.matchesWaitTimer = meterRegistry.timer("password.hashing.wait", "operation", "matches");
+        this.rejectedCounter = meterRegistry.counter("password.hashing.rejected");
+        this.abandonedCounter = meterRegistry.counter("password.hashing.abandoned");
+        meterRegistry.gauge("password.hashing.abandoned.running", abandonedRunning);
+        new ExecutorServiceMetrics(executor, "password-hashing", List.of()).bindTo(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword), encodeTimer, encodeWaitTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer, matchesWaitTimer);
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public int getPoolSize() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public long getCompletedCount() {
+        return hashCount.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getAbandonedCount() {
+        return abandoned.sum();
+    }
+
+    public int getAbandonedRunning() {
+        return abandonedRunning.get();
+    }
+
+    public long getRetryAfterSeconds() {
+        return Math.max(retryAfter, (long) Math.ceil(getEstimatedWaitMillis() / 1000.0));
+    }
+
+    // Abandoned hashes still hold their threads, so they count towards the wait like any other active task
+    public double getEstimatedWaitMillis() {
+        return (getQueueDepth() + getActiveCount()) * getAverageHashMillis() / getPoolSize();
+    }
+
+    public double getAverageHashMillis() {
+        long count = hashCount.sum();
+        return count == 0 ? 0 : hashNanos.sum() / 1_000_000.0 / count;
+    }
+
+    public double getAverageWaitMillis() {
+        long count = waitCount.sum();
+        return count == 0 ? 0 : waitNanos.sum() / 1_000_000.0 / count;
+    }
+
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        Callable<String> task = timed(() -> delegate.encode(rawPassword), encodeTimer, encodeWaitTimer);
+        try {
+            admit();
+            executor.execute(() -> {
+                try {
+                    result.complete(task.call());
+                } catch (Exception ex) {
+                    result.completeExceptionally(ex);
+                }
+            });
+        } catch (PasswordHashingRejectedException ex) {
+            result.completeExceptionally(ex);
+        } catch (RejectedExecutionException ex) {
+            result.completeExceptionally(reject("Password hashing queue is full", ex));
+        }
+        return result;
+    }
+
+    // BCrypt never checks the interrupt flag, so a hash that times out while running is left to finish and
+    // counted as abandoned; only a hash still waiting in the queue is dropped
+    private <T> T execute(Callable<T> task, Timer hashTimer, Timer waitTimer) {
+        admit();
+        AtomicInteger state = new AtomicInteger(QUEUED);
+        Callable<T> timedTask = timed(task, hashTimer, waitTimer);
+        Future<T> future = null;
+        try {
+            future = executor.submit(() -> {
+                if(!state.compareAndSet(QUEUED, RUNNING)) {
+                    return null;
+                }
+                try {
+                    return timedTask.call();
+                } finally {
+                    if(!state.compareAndSet(RUNNING, DONE)) {
+                        abandonedRunning.decrementAndGet();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            throw reject("Password hashing queue is full", ex);
+        }
+        try {
+            return future.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            if(state.compareAndSet(QUEUED, DROPPED)) {
+                future.cancel(false);
+                throw reject("Password hashing timed out in the queue", ex);
+            }
+            if(state.compareAndSet(RUNNING, ABANDONED)) {
+                abandoned.increment();
+                abandonedCounter.increment();
+                abandonedRunning.incrementAndGet();
+                throw reject("Password hashing timed out", ex);
+            }
+            return await(future);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", ex);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        }
+    }
+
+    // A task that completed between the timeout and the abandon attempt is returned instead of being thrown away
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing", ex);
+        } catch (ExecutionException ex) {
+            throw unwrap(ex);
+        }
+    }
+
+    private RuntimeException unwrap(ExecutionException ex) {
+        if(ex.getCause() instanceof RuntimeException) {
+            return (RuntimeException) ex.getCause();
+        }
+        return new IllegalStateException("Password hashing failed", ex.getCause());
+    }
+
+    // Fails fast when the work already ahead of a new task, abandoned hashes included, would outlast the timeout
+    private void admit() {
+        if(getEstimatedWaitMillis() + getAverageHashMillis() > timeout) {
+            throw reject("Password hashing backlog exceeds the timeout", null);
+        }
+    }
+
+    // Wait is the time a task spends queued, from submission until a hashing thread picks it up
+    private <T> Callable<T> timed(Callable<T> task, Timer hashTimer, Timer waitTimer) {
+        long submitted = System.nanoTime();
+        return () -> {
+            long start = System.nanoTime();
+            waitNanos.add(start - submitted);
+            waitCount.increment();
+            waitTimer.record(start - submitted, TimeUnit.NANOSECONDS);
+            try {
+                return task.call();
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                hashNanos.add(elapsed);
+                hashCount.increment();
+                hashTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            }
+        };
+    }
+
+    private PasswordHashingRejectedException reject(String message, Exception cause) {
+        rejected.increment();
+        rejectedCounter.increment();
+        return new PasswordHashingRejectedException(message, cause);
+    }
+}
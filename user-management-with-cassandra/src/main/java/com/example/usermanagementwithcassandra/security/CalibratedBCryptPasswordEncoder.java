@@ -0,0 +1,51 @@
+package com.example.usermanagementwithcassandra.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final String CALIBRATION_PASSWORD = "calibration";
+
+    private final int strength;
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        boolean upgrade = false;
+        if(encodedPassword != null) {
+            String[] parts = encodedPassword.split("\\$");
+            try {
+                upgrade = parts.length < 3 || Integer.parseInt(parts[2]) != strength;
+            } catch (NumberFormatException ex) {
+                upgrade = true;
+            }
+        }
+        return upgrade;
+    }
+
+    public static CalibratedBCryptPasswordEncoder calibrate(long targetMillis, int minStrength, int maxStrength) {
+        new BCryptPasswordEncoder(4).encode(CALIBRATION_PASSWORD);
+        int strength = minStrength;
+        double elapsed = measure(strength);
+        while(strength < maxStrength && elapsed * Math.sqrt(2) < targetMillis) {
+            strength++;
+            elapsed = measure(strength);
+        }
+        return new CalibratedBCryptPasswordEncoder(strength);
+    }
+
+    private static double measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long start = System.nanoTime();
+        encoder.encode(CALIBRATION_PASSWORD);
+        return (System.nanoTime() - start) / 1_000_000.0;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.usermanagementwithcassandra.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+
+import java.util.Map;
+
+@Configuration
+public class PasswordEncoderProvider {
+
+    private static final String BCRYPT_ID = "bcrypt";
+
+    private final Logger logger = LoggerFactory.getLogger(PasswordEncoderProvider.class);
+
+    @Value("${security.hashing.threads}")
+    private int hashingThreads;
+    @Value("${security.hashing.queue-capacity}")
+    private int hashingQueueCapacity;
+    @Value("${security.hashing.timeout}")
+    private long hashingTimeout;
+    @Value("${security.hashing.retry-after}")
+    private long hashingRetryAfter;
+    @Value("${security.hashing.strength}")
+    private int hashingStrength;
+    @Value("${security.hashing.target-time}")
+    private long hashingTargetTime;
+    @Value("${security.hashing.min-strength}")
+    private int hashingMinStrength;
+    @Value("${security.hashing.max-strength}")
+    private int hashingMaxStrength;
+
+    @Bean(destroyMethod = "shutdown")
+    public BoundedPasswordEncoder provideBoundedPasswordEncoder(MeterRegistry meterRegistry) {
+        CalibratedBCryptPasswordEncoder bcrypt = hashingStrength > 0
+                ? new CalibratedBCryptPasswordEncoder(hashingStrength)
+                : CalibratedBCryptPasswordEncoder.calibrate(hashingTargetTime, hashingMinStrength, hashingMaxStrength);
+        logger.info("Password hashing uses bcrypt with strength {}", bcrypt.getStrength());
+        DelegatingPasswordEncoder delegate = new DelegatingPasswordEncoder(BCRYPT_ID, Map.of(BCRYPT_ID, bcrypt));
+        delegate.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new BoundedPasswordEncoder(delegate, hashingThreads, hashingQueueCapacity, hashingTimeout, hashingRetryAfter, meterRegistry);
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.example.usermanagementwithcassandra.security;
+
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.example.usermanagementwithcassandra.security;
+
+import com.example.usermanagementwithcassandra.entities.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class PrincipalCache {
+
+    private final Cache<String, CachedPrincipal> cache;
+
+    public PrincipalCache(@Value("${security.principal-cache.max-size}") long maxSize, @Value("${security.principal-cache.ttl}") long ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttl))
+                .recordStats()
+                .build();
+    }
+
+    public CachedPrincipal get(String email, Function<String, User> loader) {
+        return cache.get(email, key -> {
+            User user = loader.apply(key);
+            return user != null ? toPrincipal(user) : null;
+        });
+    }
+
+    public CachedPrincipal getIfPresent(String email) {
+        return cache.getIfPresent(email);
+    }
+
+    public CachedPrincipal put(User user) {
+        CachedPrincipal principal = toPrincipal(user);
+        cache.put(user.getEmail(), principal);
+        return principal;
+    }
+
+    public void invalidate(String email) {
+        if(email != null) {
+            cache.invalidate(email);
+        }
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public static List<GrantedAuthority> toAuthorities(Collection<String> roles) {
+        return roles.stream().map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+    }
+
+    private CachedPrincipal toPrincipal(User user) {
+        return new CachedPrincipal(user, toAuthorities(user.getRoles()));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class CachedPrincipal {
+        private final User user;
+        private final List<GrantedAuthority> authorities;
+    }
+}
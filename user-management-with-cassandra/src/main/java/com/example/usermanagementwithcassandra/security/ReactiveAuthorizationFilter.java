@@ -0,0 +1,90 @@
+package com.example.usermanagementwithcassandra.security;
+
+import com.example.usermanagementwithcassandra.services.ReactiveUserService;
+import com.example.usermanagementwithcassandra.services.TokenRevocationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Optional;
+
+public class ReactiveAuthorizationFilter implements WebFilter {
+
+    private final Logger logger = LoggerFactory.getLogger(ReactiveAuthorizationFilter.class);
+    private final ReactiveUserService userService;
+    private final PrincipalCache principalCache;
+    private final TokenProvider tokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+    private final Counter successCounter;
+    private final Counter failureCounter;
+
+    public ReactiveAuthorizationFilter(ReactiveUserService userService, PrincipalCache principalCache, TokenProvider tokenProvider, TokenRevocationService tokenRevocationService, MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.principalCache = principalCache;
+        this.tokenProvider = tokenProvider;
+        this.tokenRevocationService = tokenRevocationService;
+        this.successCounter = meterRegistry.counter("authentication.token", "result", "success");
+        this.failureCounter = meterRegistry.counter("authentication.token", "result", "failure");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String headerAuthorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if(tokenProvider.hasTokenType(headerAuthorization)) {
+            return getAuthentication(headerAuthorization)
+                    .map(Optional::of)
+                    .defaultIfEmpty(Optional.empty())
+                    .flatMap(authentication -> {
+                        if(authentication.isPresent()) {
+                            successCounter.increment();
+                            return chain.filter(exchange).contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication.get()));
+                        }
+                        failureCounter.increment();
+                        // Don't accept wrong credentials
+                        exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+                        return exchange.getResponse().setComplete();
+                    });
+        } // Accept anonymous authentication, but resources could be locked for the request
+        return chain.filter(exchange);
+    }
+
+    private Mono<UsernamePasswordAuthenticationToken> getAuthentication(String headerAuthorization) {
+        return Mono.fromCallable(() -> tokenProvider.verify(headerAuthorization))
+                .filter(token -> token.getEmail() != null)
+                .flatMap(this::rejectRevoked)
+                .map(TokenProvider.VerifiedToken::getEmail)
+                .flatMap(email -> {
+                    PrincipalCache.CachedPrincipal cached = principalCache.getIfPresent(email);
+                    if(cached != null) {
+                        return Mono.just(cached);
+                    }
+                    return userService.getUserByEmail(email).map(principalCache::put);
+                })
+                .map(principal -> new UsernamePasswordAuthenticationToken(principal.getUser(), null, principal.getAuthorities()))
+                .onErrorResume(ex -> {
+                    logger.error("Exception captured", ex);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<TokenProvider.VerifiedToken> rejectRevoked(TokenProvider.VerifiedToken token) {
+        // Only a possible filter hit needs the blocking lookup
+        if(!tokenRevocationService.mightBeRevoked(token)) {
+            return Mono.just(token);
+        }
+        return Mono.fromCallable(() -> tokenRevocationService.isRevoked(token))
+                .subscribeOn(Schedulers.boundedElastic())
+                .filter(revoked -> !revoked)
+                .map(revoked -> token);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.usermanagementwithcassandra.security;
+
+import com.example.usermanagementwithcassandra.services.ReactiveUserService;
+import com.example.usermanagementwithcassandra.services.TokenRevocationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+@Configuration
+@Profile("reactive")
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+public class ReactiveWebSecurity {
+
+    private final ReactiveUserService userService;
+    private final PrincipalCache principalCache;
+    private final TokenProvider tokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public ReactiveWebSecurity(@Lazy ReactiveUserService userService, PrincipalCache principalCache, TokenProvider tokenProvider, TokenRevocationService tokenRevocationService, BoundedPasswordEncoder passwordEncoder, MeterRegistry meterRegistry) {
+        this.userService = userService;
+        this.principalCache = principalCache;
+        this.tokenProvider = tokenProvider;
+        this.tokenRevocationService = tokenRevocationService;
+        this.passwordEncoder = passwordEncoder;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    public ReactiveAuthenticationManager provideReactiveAuthenticationManager() {
+        UserDetailsRepositoryReactiveAuthenticationManager authenticationManager = new UserDetailsRepositoryReactiveAuthenticationManager(userService);
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        authenticationManager.setUserDetailsPasswordService(userService);
+        return authenticationManager;
+    }
+
+    @Bean
+    public SecurityWebFilterChain provideSecurityWebFilterChain(ServerHttpSecurity http) {
+        return http.csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN)))
+                .authorizeExchange(exchanges -> exchanges.pathMatchers("/users", "/users/**").permitAll())
+                .addFilterAt(new ReactiveAuthorizationFilter(userService, principalCache, tokenProvider, tokenRevocationService, meterRegistry), SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+}
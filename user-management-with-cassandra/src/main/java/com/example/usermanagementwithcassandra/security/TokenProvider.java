@@ -0,0 +1,102 @@
+package com.example.usermanagementwithcassandra.security;
+
+import com.example.usermanagementwithcassandra.entities.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.UUID;
+
+@Component
+public class TokenProvider {
+
+    // iat only has second precision, revocation checks need the issue millisecond
+    private static final String ISSUED_AT_MILLIS = "iat_ms";
+
+    private final String tokenKey;
+    private final String tokenType;
+    private final String separator;
+    private final long validity;
+    private final String authoritiesKey;
+    private final Timer signTimer;
+    private final Timer verifyTimer;
+
+    public TokenProvider(@Value("${security.token-key}") String tokenKey, @Value("${security.token-type}") String tokenType, @Value("${security.separator}") String separator,
+                         @Value("${security.validity}") long validity, @Value("${security.authorities-key}") String authoritiesKey, MeterRegistry meterRegistry) {
+        this.tokenKey = tokenKey;
+        this.tokenType = tokenType;
+        this.separator = separator;
+        this.validity = validity;
+        this.authoritiesKey = authoritiesKey;
+        this.signTimer = meterRegistry.timer("jwt", "operation", "sign");
+        this.verifyTimer = meterRegistry.timer("jwt", "operation", "verify");
+    }
+
+    public String getTokenType() {
+        return tokenType;
+    }
+
+    public boolean hasTokenType(String headerAuthorization) {
+        return headerAuthorization != null && headerAuthorization.startsWith(tokenType);
+    }
+
+    public String issue(User user) {
+        return signTimer.record(() -> sign(user));
+    }
+
+    public VerifiedToken verify(String headerAuthorization) {
+        return verifyTimer.record(() -> parse(headerAuthorization));
+    }
+
+    private String sign(User user) {
+        String rolesClaim = String.join(separator, user.getRoles());
+        Claims claims = Jwts.claims();
+        claims.put(authoritiesKey, rolesClaim);
+        long currentTime = System.currentTimeMillis();
+        claims.put(ISSUED_AT_MILLIS, currentTime);
+        String subject = String.join(separator, String.valueOf(user.getUid()), user.getEmail());
+        return Jwts.builder()
+                .setClaims(claims)
+                .setId(UUID.randomUUID().toString())
+                .setSubject(subject)
+                .setIssuedAt(new Date(currentTime))
+                .setExpiration(new Date(currentTime + validity))
+                .signWith(SignatureAlgorithm.HS256, tokenKey)
+                .compact();
+    }
+
+    private VerifiedToken parse(String headerAuthorization) {
+        String token = headerAuthorization.replace(tokenType, "");
+        Claims claims = Jwts.parser()
+                .setSigningKey(tokenKey)
+                .parseClaimsJws(token)
+                .getBody();
+        String uid = null;
+        String email = null;
+        String[] subjectData = claims.getSubject().split(separator);
+        if(subjectData.length == 2 && subjectData[0] != null && subjectData[1] != null) {
+            uid = subjectData[0];
+            email = subjectData[1];
+        }
+        Object issuedAtMillis = claims.get(ISSUED_AT_MILLIS);
+        Date issuedAt = issuedAtMillis instanceof Number ? new Date(((Number) issuedAtMillis).longValue()) : claims.getIssuedAt();
+        return new VerifiedToken(claims.getId(), uid, email, issuedAt, claims.getExpiration());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class VerifiedToken {
+        private final String id;
+        private final String uid;
+        private final String email;
+        private final Date issuedAt;
+        private final Date expiration;
+    }
+}
@@ -1,61 +1,71 @@
 package com.example.usermanagementwithcassandra.security;
 
+import com.example.usermanagementwithcassandra.services.TokenRevocationService;
 import com.example.usermanagementwithcassandra.services.UserService;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
-import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.web.SecurityFilterChain;
 
+import jakarta.servlet.DispatcherType;
+
+@Configuration
+@Profile("!reactive")
 @EnableWebSecurity
-@EnableGlobalMethodSecurity(prePostEnabled = true)
-public class WebSecurity extends WebSecurityConfigurerAdapter {
+@EnableMethodSecurity
+public class WebSecurity {
 
-    private final Logger logger = LoggerFactory.getLogger(WebSecurity.class);
     private final UserService userService;
+    private final PrincipalCache principalCache;
+    private final TokenProvider tokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final MeterRegistry meterRegistry;
 
     @Autowired
-    public WebSecurity(@Lazy UserService userService) {
+    public WebSecurity(@Lazy UserService userService, PrincipalCache principalCache, TokenProvider tokenProvider, TokenRevocationService tokenRevocationService, BoundedPasswordEncoder passwordEncoder, MeterRegistry meterRegistry) {
         this.userService = userService;
+        this.principalCache = principalCache;
+        this.tokenProvider = tokenProvider;
+        this.tokenRevocationService = tokenRevocationService;
+        this.passwordEncoder = passwordEncoder;
+        this.meterRegistry = meterRegistry;
     }
 
     @Bean
-    public AuthenticationManager provideAuthenticationManager() throws Exception {
-        return authenticationManager();
+    public AuthenticationManager provideAuthenticationManager() {
+        DaoAuthenticationProvider authenticationProvider = new DaoAuthenticationProvider();
+        authenticationProvider.setUserDetailsService(userService);
+        authenticationProvider.setUserDetailsPasswordService(userService);
+        authenticationProvider.setPasswordEncoder(passwordEncoder);
+        return new ProviderManager(authenticationProvider);
     }
 
     @Bean
-    public AuthorizationFilter provideAuthorizationFilter() throws Exception {
-        return new AuthorizationFilter(authenticationManager(), userService);
+    public AuthorizationFilter provideAuthorizationFilter() {
+        return new AuthorizationFilter(provideAuthenticationManager(), userService, principalCache, tokenProvider, tokenRevocationService, meterRegistry);
     }
 
     @Bean
-    public BCryptPasswordEncoder provideBCryptPasswordEncoder() {
-        return new BCryptPasswordEncoder();
-    }
-
-    @Override
-    protected void configure(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(userService).passwordEncoder(provideBCryptPasswordEncoder());
-        super.configure(auth);
-    }
-
-    @Override
-    protected void configure(HttpSecurity http) throws Exception {
-        http.csrf().disable();
-        http.authorizeRequests()
-                .antMatchers("/users", "/users/**").permitAll()
-                .and()
-                .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
-                .and()
-                .addFilter(provideAuthorizationFilter());
+    public SecurityFilterChain provideSecurityFilterChain(HttpSecurity http) throws Exception {
+        return http.csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(requests -> requests
+                        .requestMatchers("/users", "/users/**").permitAll()
+                        // Error dispatches only render the status a handler already chose, method security guards the endpoints
+                        .dispatcherTypeMatchers(DispatcherType.ERROR).permitAll())
+                .sessionManagement(sessions -> sessions.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .addFilter(provideAuthorizationFilter())
+                .build();
     }
 }
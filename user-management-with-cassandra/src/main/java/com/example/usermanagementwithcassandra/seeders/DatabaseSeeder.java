@@ -1,13 +1,17 @@
 package com.example.usermanagementwithcassandra.seeders;
 
+import com.example.usermanagementwithcassandra.daos.UserDao;
 import com.example.usermanagementwithcassandra.entities.Role;
 import com.example.usermanagementwithcassandra.entities.User;
-import com.example.usermanagementwithcassandra.repositories.RoleRepository;
-import com.example.usermanagementwithcassandra.repositories.UserRepository;
+import com.example.usermanagementwithcassandra.security.BoundedPasswordEncoder;
+import com.example.usermanagementwithcassandra.services.RoleService;
+import com.example.usermanagementwithcassandra.services.RoleMembershipService;
+import com.example.usermanagementwithcassandra.services.UserSearchService;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.ContextRefreshedEvent;
 import org.springframework.context.event.EventListener;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Component;
 
 import java.util.Set;
@@ -15,38 +19,67 @@ import java.util.Set;
 @Component
 public class DatabaseSeeder {
 
-    private final BCryptPasswordEncoder passwordEncoder;
-    private final RoleRepository roleRepository;
-    private final UserRepository userRepository;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final UserDao userDao;
+    private final RoleService roleService;
+    private final UserSearchService userSearchService;
+    private final RoleMembershipService roleMembershipService;
+    private final ObjectProvider<EmailLookupVerifier> emailLookupVerifier;
+
+    @Value("${database.verify-email-lookup}")
+    private boolean verifyEmailLookup;
+    @Value("${search.rebuild-index}")
+    private boolean rebuildSearchIndex;
+    @Value("${database.rebuild-role-members}")
+    private boolean rebuildRoleMembers;
+    @Value("${database.scan-page-size}")
+    private int scanPageSize;
 
     @Autowired
-    public DatabaseSeeder(BCryptPasswordEncoder passwordEncoder, RoleRepository roleRepository, UserRepository userRepository) {
+    public DatabaseSeeder(BoundedPasswordEncoder passwordEncoder, UserDao userDao, RoleService roleService, UserSearchService userSearchService, RoleMembershipService roleMembershipService, ObjectProvider<EmailLookupVerifier> emailLookupVerifier) {
         this.passwordEncoder = passwordEncoder;
-        this.roleRepository = roleRepository;
-        this.userRepository = userRepository;
+        this.userDao = userDao;
+        this.roleService = roleService;
+        this.userSearchService = userSearchService;
+        this.roleMembershipService = roleMembershipService;
+        this.emailLookupVerifier = emailLookupVerifier;
     }
 
     @EventListener
     public void seedDatabase(ContextRefreshedEvent event) {
+        // The management server refreshes its own child context
+        if(event.getApplicationContext().getParent() != null) {
+            return;
+        }
         seedRoles();
         seedUsers();
+        if(verifyEmailLookup) {
+            emailLookupVerifier.ifAvailable(EmailLookupVerifier::backfillEmailLookup);
+        }
+        if(rebuildSearchIndex) {
+            userSearchService.rebuildIndex(scanPageSize);
+        }
+        if(rebuildRoleMembers) {
+            roleMembershipService.rebuildIndex(scanPageSize);
+        }
     }
 
     private void seedRoles() {
-        if(roleRepository.count() == 0) {
-            Role role = new Role(Role.ADMINISTRATOR);
-            roleRepository.save(role);
-
-            role = new Role(Role.GUEST);
-            roleRepository.save(role);
+        roleService.refresh();
+        if(roleService.getAll().isEmpty()) {
+            roleService.createRole(Role.ADMINISTRATOR);
+            roleService.createRole(Role.GUEST);
         }
     }
 
     private void seedUsers() {
-        if(userRepository.count() == 0) {
-            Role admin = roleRepository.findByName(Role.ADMINISTRATOR).orElse(null);
+        if(userDao.count() == 0) {
+            Role admin = roleService.getByName(Role.ADMINISTRATOR);
             User user = new User("Root", "Admin", "root@gmail.com", passwordEncoder.encode("root"), Set.of(admin.getName()));
-            userRepository.save(user);
+            userDao.save(user);
+            userDao.saveEmailLookup(user);
+            userSearchService.index(null, user);
+            roleMembershipService.index(null, user);
         }
     }
 
@@ -0,0 +1,99 @@
+package com.example.usermanagementwithcassandra.seeders;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.example.usermanagementwithcassandra.entities.UserByEmail;
+import com.example.usermanagementwithcassandra.utils.ExecutionProfiles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+@Component
+@Profile("!in-memory")
+public class EmailLookupVerifier {
+
+    private static final String USER_COLUMNS = "uid, email, first_name, last_name, protected_password, roles";
+
+    private final Logger logger = LoggerFactory.getLogger(EmailLookupVerifier.class);
+    private final CqlSession session;
+    private final PreparedStatement selectUsers;
+    private final PreparedStatement selectLookups;
+    private final PreparedStatement selectLookup;
+    private final PreparedStatement selectOwner;
+    private final PreparedStatement insertLookup;
+    private final PreparedStatement deleteLookup;
+
+    @Value("${database.scan-page-size}")
+    private int scanPageSize;
+
+    @Autowired
+    public EmailLookupVerifier(CqlSession session) {
+        this.session = session;
+        this.selectUsers = prepare("SELECT " + USER_COLUMNS + " FROM users", ExecutionProfiles.ADMIN_SCAN);
+        this.selectLookups = prepare("SELECT " + USER_COLUMNS + " FROM users_by_email", ExecutionProfiles.ADMIN_SCAN);
+        this.selectLookup = prepare("SELECT " + USER_COLUMNS + " FROM users_by_email WHERE email = ?", ExecutionProfiles.ADMIN_SCAN);
+        this.selectOwner = prepare("SELECT uid FROM users WHERE uid = ? AND email = ?", ExecutionProfiles.ADMIN_SCAN);
+        this.insertLookup = prepare("INSERT INTO users_by_email (" + USER_COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?)", ExecutionProfiles.WRITE);
+        this.deleteLookup = prepare("DELETE FROM users_by_email WHERE email = ?", ExecutionProfiles.WRITE);
+    }
+
+    public void backfillEmailLookup() {
+        AtomicLong written = new AtomicLong();
+        forEachPage(selectUsers, lookup -> session.executeAsync(selectLookup.bind(lookup.getEmail()))
+                .thenCompose(current -> {
+                    Row row = current.one();
+                    if(row != null && lookup.equals(toLookup(row))) {
+                        return CompletableFuture.<AsyncResultSet>completedFuture(null);
+                    }
+                    written.incrementAndGet();
+                    return session.executeAsync(insertLookup.bind(lookup.getUid(), lookup.getEmail(), lookup.getFirstName(), lookup.getLastName(), lookup.getProtectedPassword(), lookup.getRoles()));
+                })
+                .toCompletableFuture());
+
+        AtomicLong removed = new AtomicLong();
+        forEachPage(selectLookups, lookup -> session.executeAsync(selectOwner.bind(lookup.getUid(), lookup.getEmail()))
+                .thenCompose(owner -> {
+                    if(owner.one() != null) {
+                        return CompletableFuture.<AsyncResultSet>completedFuture(null);
+                    }
+                    removed.incrementAndGet();
+                    return session.executeAsync(deleteLookup.bind(lookup.getEmail()));
+                })
+                .toCompletableFuture());
+        logger.info("Email lookup verified: {} rows written, {} orphan rows removed", written.get(), removed.get());
+    }
+
+    // One scan page at a time, the checks of a page run concurrently
+    private void forEachPage(PreparedStatement scan, Function<UserByEmail, CompletableFuture<?>> check) {
+        Iterator<Row> rows = session.execute(scan.bind().setPageSize(scanPageSize)).iterator();
+        while(rows.hasNext()) {
+            List<CompletableFuture<?>> pending = new ArrayList<>(scanPageSize);
+            while(rows.hasNext() && pending.size() < scanPageSize) {
+                pending.add(check.apply(toLookup(rows.next())));
+            }
+            CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+        }
+    }
+
+    private UserByEmail toLookup(Row row) {
+        return new UserByEmail(row.getString("email"), row.getString("uid"), row.getString("first_name"), row.getString("last_name"),
+                row.getString("protected_password"), row.getSet("roles", String.class));
+    }
+
+    private PreparedStatement prepare(String query, String executionProfile) {
+        return session.prepare(SimpleStatement.newInstance(query).setIdempotent(true).setExecutionProfileName(executionProfile));
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.usermanagementwithcassandra.services;
+
+public class EmailAlreadyInUseException extends RuntimeException {
+
+    public EmailAlreadyInUseException(String email) {
+        super("Email " + email + " is already in use");
+    }
+
+}
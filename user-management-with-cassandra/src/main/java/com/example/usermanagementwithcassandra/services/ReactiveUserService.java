@@ -0,0 +1,273 @@
+package com.example.usermanagementwithcassandra.services;
+
+import com.example.usermanagementwithcassandra.daos.ReactiveUserDao;
+import com.example.usermanagementwithcassandra.dtos.LoginRequest;
+import com.example.usermanagementwithcassandra.dtos.LoginResponse;
+import com.example.usermanagementwithcassandra.dtos.UserPageResponse;
+import com.example.usermanagementwithcassandra.dtos.UserPatchRequest;
+import com.example.usermanagementwithcassandra.dtos.UserRequest;
+import com.example.usermanagementwithcassandra.dtos.UserResponse;
+import com.example.usermanagementwithcassandra.entities.User;
+import com.example.usermanagementwithcassandra.mappers.UserMapper;
+import com.example.usermanagementwithcassandra.security.BoundedPasswordEncoder;
+import com.example.usermanagementwithcassandra.security.PrincipalCache;
+import com.example.usermanagementwithcassandra.security.TokenProvider;
+import com.example.usermanagementwithcassandra.utils.ExecutionProfiles;
+import com.example.usermanagementwithcassandra.utils.PagingCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.core.ReactiveCassandraOperations;
+import org.springframework.data.cassandra.core.cql.QueryOptions;
+import org.springframework.data.cassandra.core.query.Query;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Service
+@Profile("reactive")
+public class ReactiveUserService implements ReactiveUserDetailsService, ReactiveUserDetailsPasswordService {
+
+    private static final QueryOptions SCAN_OPTIONS = QueryOptions.builder().executionProfile(ExecutionProfiles.ADMIN_SCAN).build();
+
+    private final Logger logger = LoggerFactory.getLogger(ReactiveUserService.class);
+    private final ReactiveAuthenticationManager authenticationManager;
+    private final UserMapper mapper;
+    private final ReactiveCassandraOperations cassandraOperations;
+    private final ReactiveUserDao userDao;
+    private final UserSearchService userSearchService;
+    private final RoleMembershipService roleMembershipService;
+    private final UserRules userRules;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
+    private final TokenProvider tokenProvider;
+    private final TokenRevocationService tokenRevocationService;
+
+    @Value("${database.default-page-size}")
+    private int defaultPageSize;
+    @Value("${database.max-page-size}")
+    private int maxPageSize;
+    @Value("${database.max-lookup-size}")
+    private int maxLookupSize;
+    @Value("${database.lookup-concurrency}")
+    private int lookupConcurrency;
+
+    @Autowired
+    public ReactiveUserService(@Lazy ReactiveAuthenticationManager authenticationManager, UserMapper mapper, ReactiveCassandraOperations cassandraOperations, ReactiveUserDao userDao,
+                               UserSearchService userSearchService, RoleMembershipService roleMembershipService,
+                               UserRules userRules, BoundedPasswordEncoder passwordEncoder, PrincipalCache principalCache, TokenProvider tokenProvider, TokenRevocationService tokenRevocationService) {
+        this.authenticationManager = authenticationManager;
+        this.mapper = mapper;
+        this.cassandraOperations = cassandraOperations;
+        this.userDao = userDao;
+        this.userSearchService = userSearchService;
+        this.roleMembershipService = roleMembershipService;
+        this.userRules = userRules;
+        this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
+        this.tokenProvider = tokenProvider;
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    public Mono<User> getUserByEmail(String email) {
+        return userDao.findByEmail(email);
+    }
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        return getUserByEmail(username).map(user -> {
+            List<GrantedAuthority> authorities = PrincipalCache.toAuthorities(user.getRoles());
+            return new org.springframework.security.core.userdetails.User(user.getEmail(), user.getProtectedPassword(), true, true, true, true, authorities);
+        });
+    }
+
+    @Override
+    public Mono<UserDetails> updatePassword(UserDetails userDetails, String newPassword) {
+        return getUserByEmail(userDetails.getUsername())
+                .flatMap(user -> {
+                    user.setProtectedPassword(newPassword);
+                    return userDao.update(user).filter(Boolean::booleanValue).map(applied -> user);
+                })
+                .map(user -> {
+                    principalCache.invalidate(user.getEmail());
+                    logger.info("Rehashed password for user {}", user.getUid());
+                    return org.springframework.security.core.userdetails.User.withUserDetails(userDetails).password(newPassword).build();
+                })
+                .defaultIfEmpty(userDetails);
+    }
+
+    public Mono<UserPageResponse> getUsersPage(Integer pageSize, String cursor) {
+        return Mono.fromCallable(() -> {
+                    int size = pageSize != null ? pageSize : defaultPageSize;
+                    if(size < 1) {
+                        throw new IllegalArgumentException("Page size must be positive");
+                    }
+                    return Query.empty().pageRequest(PagingCursor.toPageable(Math.min(size, maxPageSize), cursor)).queryOptions(SCAN_OPTIONS);
+                })
+                .flatMap(query -> cassandraOperations.slice(query, User.class))
+                .map(users -> {
+                    List<UserResponse> content = users.getContent().stream().map(mapper::toResponse).collect(Collectors.toList());
+                    String nextCursor = users.hasNext() ? PagingCursor.fromPageable(users.nextPageable()) : null;
+                    return new UserPageResponse(content, nextCursor);
+                });
+    }
+
+    public Flux<UserResponse> exportUsers() {
+        return cassandraOperations.select(Query.empty().queryOptions(SCAN_OPTIONS), User.class)
+                .map(mapper::toResponse);
+    }
+
+    public Mono<UserResponse> createUser(UserRequest userRequest) {
+        User user = mapper.toUser(userRequest);
+        user.setUid(UUID.randomUUID().toString());
+        user.setRoles(userRules.resolveRolesOrGuest(userRequest.getRoles()));
+        return encode(userRequest.getPassword())
+                .flatMap(protectedPassword -> {
+                    user.setProtectedPassword(protectedPassword);
+                    return claimEmailThen(user, () -> userDao.save(user));
+                })
+                .then(index(null, user))
+                .thenReturn(user)
+                .map(mapper::toResponse);
+    }
+
+    public Mono<LoginResponse> login(LoginRequest loginRequest) {
+        return authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()))
+                .flatMap(authentication -> getUserByEmail(loginRequest.getEmail()))
+                .map(user -> new LoginResponse(user.getEmail(), tokenProvider.getTokenType(), tokenProvider.issue(user)))
+                .onErrorResume(AuthenticationException.class, ex -> {
+                    logger.error("Exception captured", ex);
+                    return Mono.empty();
+                });
+    }
+
+    public Mono<Void> logout(String headerAuthorization) {
+        return blocking(() -> tokenRevocationService.revoke(tokenProvider.verify(headerAuthorization)));
+    }
+
+    public Mono<UserResponse> getUserById(String id) {
+        return userDao.findByUid(id).map(mapper::toResponse);
+    }
+
+    public Flux<UserResponse> lookupUsers(List<String> uids) {
+        List<String> distinctUids = uids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if(distinctUids.size() > maxLookupSize) {
+            return Flux.error(new IllegalArgumentException("At most " + maxLookupSize + " uids can be looked up at once"));
+        }
+        return Flux.fromIterable(distinctUids)
+                .flatMapSequential(userDao::findByUid, lookupConcurrency)
+                .map(mapper::toResponse);
+    }
+
+    public boolean createUserRequestHasAdminRole(UserRequest userRequest) {
+        return userRules.hasAdminRole(userRequest.getRoles());
+    }
+
+    public boolean createUserRequestHasAdminRole(User user) {
+        return userRules.hasAdminRole(user.getRoles());
+    }
+
+    public Mono<UserResponse> editUser(String uid, UserRequest userRequest) {
+        return userDao.findByUid(uid)
+                .flatMap(user -> {
+                    User previous = userRules.copyOf(user);
+                    String previousEmail = user.getEmail();
+                    String previousPassword = user.getProtectedPassword();
+                    userRules.applyEdit(user, userRequest);
+                    boolean passwordChanged = userRequest.getPassword() != null;
+                    return (passwordChanged ? encode(userRequest.getPassword()) : Mono.just(previousPassword))
+                            .flatMap(protectedPassword -> {
+                                user.setProtectedPassword(protectedPassword);
+                                Mono<Boolean> written = Objects.equals(previousEmail, user.getEmail())
+                                        ? userDao.update(user)
+                                        : moveUser(user, previousEmail).thenReturn(true);
+                                return written.filter(Boolean::booleanValue)
+                                        .flatMap(applied -> afterWrite(previous, user, passwordChanged).thenReturn(user));
+                            });
+                })
+                .map(mapper::toResponse);
+    }
+
+    public Mono<UserResponse> patchUser(String uid, UserPatchRequest patchRequest) {
+        Mono<Optional<String>> protectedPassword = patchRequest.getPassword() != null
+                ? encode(patchRequest.getPassword()).map(Optional::of)
+                : Mono.just(Optional.empty());
+        return userDao.findByUid(uid)
+                .flatMap(user -> protectedPassword.flatMap(password -> {
+                    User previous = userRules.copyOf(user);
+                    UserRules.PatchPlan plan = userRules.planPatch(user, patchRequest, password.orElse(null));
+                    // Patches run one after another and stop at the first one whose lookup condition failed
+                    Mono<Boolean> written = plan.isMoving()
+                            ? moveUser(user, plan.getPreviousEmail()).thenReturn(true)
+                            : Flux.fromIterable(plan.getPatches()).concatMap(userDao::patch).all(Boolean::booleanValue);
+                    return written.filter(Boolean::booleanValue)
+                            .flatMap(applied -> afterWrite(previous, user, password.isPresent()).thenReturn(user));
+                }))
+                .map(mapper::toResponse);
+    }
+
+    public boolean patchRequestHasAdminRole(UserPatchRequest patchRequest) {
+        return userRules.grantsAdminRole(patchRequest);
+    }
+
+    public Mono<Boolean> deleteUser(String id) {
+        return userDao.findByUid(id)
+                .flatMap(user -> userDao.deleteByUid(id)
+                        .then(userDao.releaseEmail(user.getEmail(), id))
+                        .then(Mono.fromRunnable(() -> principalCache.invalidate(user.getEmail())))
+                        .then(blocking(() -> tokenRevocationService.revokeUser(id)))
+                        .then(index(user, null))
+                        .thenReturn(true))
+                .defaultIfEmpty(false);
+    }
+
+    private Mono<Void> moveUser(User user, String previousEmail) {
+        return claimEmailThen(user, () -> userDao.move(user, previousEmail));
+    }
+
+    // The write runs once the new email is claimed, the claim is given back if the write fails
+    private Mono<Void> claimEmailThen(User user, Supplier<Mono<Void>> write) {
+        return userDao.claimEmail(user)
+                .flatMap(claimed -> claimed
+                        ? Mono.defer(write).onErrorResume(ex -> userDao.releaseEmail(user.getEmail(), user.getUid()).then(Mono.<Void>error(ex)))
+                        : Mono.<Void>error(new EmailAlreadyInUseException(user.getEmail())));
+    }
+
+    private Mono<Void> afterWrite(User previous, User user, boolean passwordChanged) {
+        principalCache.invalidate(previous.getEmail());
+        principalCache.invalidate(user.getEmail());
+        Mono<Void> revoked = userRules.revokesTokens(previous, user, passwordChanged)
+                ? blocking(() -> tokenRevocationService.revokeUser(user.getUid()))
+                : Mono.empty();
+        return revoked.then(index(previous, user));
+    }
+
+    private Mono<Void> index(User previous, User current) {
+        return Mono.defer(() -> Mono.fromFuture(CompletableFuture.allOf(userSearchService.indexAsync(previous, current), roleMembershipService.indexAsync(previous, current))));
+    }
+
+    private Mono<String> encode(String rawPassword) {
+        return Mono.fromCallable(() -> passwordEncoder.encode(rawPassword)).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // Revocations are recorded through the blocking RevokedTokenDao, keep them off the event loop
+    private Mono<Void> blocking(Runnable task) {
+        return Mono.fromRunnable(task).subscribeOn(Schedulers.boundedElastic()).then();
+    }
+}
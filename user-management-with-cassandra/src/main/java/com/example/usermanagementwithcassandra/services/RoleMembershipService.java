@@ -0,0 +1,89 @@
+package com.example.usermanagementwithcassandra.services;
+
+import com.example.usermanagementwithcassandra.daos.RoleMembershipDao;
+import com.example.usermanagementwithcassandra.daos.UserDao;
+import com.example.usermanagementwithcassandra.dtos.UserPageResponse;
+import com.example.usermanagementwithcassandra.dtos.UserResponse;
+import com.example.usermanagementwithcassandra.entities.User;
+import com.example.usermanagementwithcassandra.mappers.UserMapper;
+import com.example.usermanagementwithcassandra.utils.PagingCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class RoleMembershipService {
+
+    private final Logger logger = LoggerFactory.getLogger(RoleMembershipService.class);
+    private final RoleMembershipDao roleMembershipDao;
+    private final UserDao userDao;
+    private final UserMapper mapper;
+
+    @Value("${database.default-page-size}")
+    private int defaultPageSize;
+    @Value("${database.max-page-size}")
+    private int maxPageSize;
+    @Value("${database.lookup-concurrency}")
+    private int lookupConcurrency;
+
+    @Autowired
+    public RoleMembershipService(RoleMembershipDao roleMembershipDao, UserDao userDao, UserMapper mapper) {
+        this.roleMembershipDao = roleMembershipDao;
+        this.userDao = userDao;
+        this.mapper = mapper;
+    }
+
+    public UserPageResponse getMembers(String role, Integer pageSize, String cursor) {
+        int size = pageSize != null ? pageSize : defaultPageSize;
+        if(size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        size = Math.min(size, maxPageSize);
+        List<String> uids = roleMembershipDao.findMemberUids(role, size, PagingCursor.decodeKey(cursor));
+        List<UserResponse> members = userDao.findByUids(uids, lookupConcurrency).stream()
+                .filter(user -> user.getRoles() != null && user.getRoles().contains(role))
+                .map(mapper::toResponse)
+                .collect(Collectors.toList());
+        String nextCursor = uids.size() == size ? PagingCursor.encodeKey(uids.get(uids.size() - 1)) : null;
+        return new UserPageResponse(members, nextCursor);
+    }
+
+    public void index(User previous, User current) {
+        indexAsync(previous, current).join();
+    }
+
+    public CompletableFuture<Void> indexAsync(User previous, User current) {
+        Set<String> before = previous != null && previous.getRoles() != null ? previous.getRoles() : Set.of();
+        Set<String> after = current != null && current.getRoles() != null ? current.getRoles() : Set.of();
+        String uid = current != null ? current.getUid() : previous.getUid();
+        Set<String> removed = before.stream().filter(it -> !after.contains(it)).collect(Collectors.toSet());
+        Set<String> added = after.stream().filter(it -> !before.contains(it)).collect(Collectors.toSet());
+        return CompletableFuture.allOf(roleMembershipDao.removeMember(uid, removed), roleMembershipDao.addMember(uid, added))
+                .exceptionally(ex -> {
+                    logger.error("Exception captured. Role membership is stale for user " + uid, ex);
+                    return null;
+                });
+    }
+
+    public long rebuildIndex(int pageSize) {
+        long indexed = 0;
+        try (Stream<User> users = userDao.streamAll(pageSize)) {
+            Iterator<User> iterator = users.iterator();
+            while(iterator.hasNext()) {
+                index(null, iterator.next());
+                indexed++;
+            }
+        }
+        logger.info("Role membership rebuilt for {} users", indexed);
+        return indexed;
+    }
+}
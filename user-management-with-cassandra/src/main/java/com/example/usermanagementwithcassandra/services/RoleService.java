@@ -1,24 +1,64 @@
 package com.example.usermanagementwithcassandra.services;
 
+import com.example.usermanagementwithcassandra.daos.RoleDao;
 import com.example.usermanagementwithcassandra.entities.Role;
-import com.example.usermanagementwithcassandra.repositories.RoleRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
 public class RoleService {
-    private final RoleRepository roleRepository;
+    private final Logger logger = LoggerFactory.getLogger(RoleService.class);
+    private final RoleDao roleDao;
+
+    private volatile Map<String, Role> catalog = Collections.emptyMap();
+    private volatile List<String> names = Collections.emptyList();
 
     @Autowired
-    public RoleService(RoleRepository roleRepository) {
-        this.roleRepository = roleRepository;
+    public RoleService(RoleDao roleDao) {
+        this.roleDao = roleDao;
     }
 
     public List<String> getAll() {
-        List<Role> roles = roleRepository.findAll();
-        return roles.stream().map(Role::getName).collect(Collectors.toList());
+        return names;
+    }
+
+    public Role getByName(String name) {
+        return catalog.get(name);
+    }
+
+    // Reads the same in-memory snapshot, for reactive callers that chain on the role
+    public Mono<Role> findByName(String name) {
+        return Mono.justOrEmpty(catalog.get(name));
+    }
+
+    public Set<String> resolveNames(Collection<String> requested) {
+        Map<String, Role> snapshot = catalog;
+        return requested.stream().map(snapshot::get).filter(Objects::nonNull).map(Role::getName).collect(Collectors.toSet());
+    }
+
+    public Role createRole(String name) {
+        Role role = new Role(name);
+        roleDao.save(role);
+        refresh();
+        return role;
+    }
+
+    @Scheduled(initialDelayString = "${database.role-catalog-refresh}", fixedDelayString = "${database.role-catalog-refresh}")
+    public void refresh() {
+        try {
+            Map<String, Role> snapshot = new LinkedHashMap<>();
+            roleDao.findAll().forEach(it -> snapshot.put(it.getName(), it));
+            catalog = Collections.unmodifiableMap(snapshot);
+            names = List.copyOf(snapshot.keySet());
+        } catch (Exception ex) {
+            logger.error("Exception captured. Keeping previous role catalog", ex);
+        }
     }
 }
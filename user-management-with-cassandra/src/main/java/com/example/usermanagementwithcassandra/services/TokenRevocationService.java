@@ -0,0 +1,118 @@
+package com.example.usermanagementwithcassandra.services;
+
+import com.example.usermanagementwithcassandra.daos.RevokedTokenDao;
+import com.example.usermanagementwithcassandra.security.TokenProvider;
+import com.example.usermanagementwithcassandra.utils.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashSet;
+import java.util.Set;
+
+@Service
+public class TokenRevocationService {
+
+    private static final String USER_PREFIX = "user:";
+
+    private final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+    private final RevokedTokenDao revokedTokenDao;
+    private final long validity;
+    private final int expectedSize;
+    private final double falsePositiveRate;
+    private final Counter revokedCounter;
+    private final Counter falsePositiveCounter;
+    private final Object lock = new Object();
+
+    private volatile BloomFilter filter;
+    // Revocations made while a rebuild is scanning, guarded by lock
+    private Set<String> pending;
+    // Sizes the next filter, the scan streams ids and cannot count them up front
+    private volatile long lastCount;
+
+    @Autowired
+    public TokenRevocationService(RevokedTokenDao revokedTokenDao, @Value("${security.validity}") long validity,
+                                  @Value("${security.revocation.expected-size}") int expectedSize, @Value("${security.revocation.false-positive-rate}") double falsePositiveRate,
+                                  MeterRegistry meterRegistry) {
+        this.revokedTokenDao = revokedTokenDao;
+        this.validity = validity;
+        this.expectedSize = expectedSize;
+        this.falsePositiveRate = falsePositiveRate;
+        this.revokedCounter = meterRegistry.counter("token.revocation.lookup", "result", "revoked");
+        this.falsePositiveCounter = meterRegistry.counter("token.revocation.lookup", "result", "false-positive");
+        this.filter = new BloomFilter(expectedSize, falsePositiveRate);
+    }
+
+    public void revoke(TokenProvider.VerifiedToken token) {
+        if(token.getId() == null) {
+            throw new IllegalArgumentException("Token has no id");
+        }
+        long ttl = token.getExpiration().getTime() - System.currentTimeMillis();
+        if(ttl > 0) {
+            record(token.getId(), Instant.now(), Duration.ofMillis(ttl));
+        }
+    }
+
+    public void revokeUser(String uid) {
+        // Millisecond precision, the same as the issued-at the tokens carry and the revoked_at column stores
+        record(USER_PREFIX + uid, Instant.now().truncatedTo(ChronoUnit.MILLIS), Duration.ofMillis(validity));
+    }
+
+    public boolean mightBeRevoked(TokenProvider.VerifiedToken token) {
+        BloomFilter current = filter;
+        return (token.getId() != null && current.mightContain(token.getId())) || current.mightContain(USER_PREFIX + token.getUid());
+    }
+
+    public boolean isRevoked(TokenProvider.VerifiedToken token) {
+        if(!mightBeRevoked(token)) {
+            return false;
+        }
+        boolean revoked = (token.getId() != null && revokedTokenDao.findRevokedAt(token.getId()).isPresent())
+                || revokedTokenDao.findRevokedAt(USER_PREFIX + token.getUid()).map(revokedAt -> !token.getIssuedAt().toInstant().isAfter(revokedAt)).orElse(false);
+        (revoked ? revokedCounter : falsePositiveCounter).increment();
+        return revoked;
+    }
+
+    @PostConstruct
+    @Scheduled(initialDelayString = "${security.revocation.refresh}", fixedDelayString = "${security.revocation.refresh}")
+    public void refresh() {
+        synchronized (lock) {
+            pending = new HashSet<>();
+        }
+        try {
+            BloomFilter next = new BloomFilter(Math.max(expectedSize, 2L * lastCount), falsePositiveRate);
+            long count = revokedTokenDao.forEachId(next::put);
+            synchronized (lock) {
+                pending.forEach(next::put);
+                filter = next;
+            }
+            lastCount = count;
+            logger.debug("Revocation filter rebuilt from {} entries", count);
+        } catch (Exception ex) {
+            logger.error("Exception captured. Keeping previous revocation filter", ex);
+        } finally {
+            synchronized (lock) {
+                pending = null;
+            }
+        }
+    }
+
+    private void record(String id, Instant revokedAt, Duration ttl) {
+        revokedTokenDao.revoke(id, revokedAt, ttl);
+        synchronized (lock) {
+            filter.put(id);
+            if(pending != null) {
+                pending.add(id);
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.usermanagementwithcassandra.services;
+
+import com.example.usermanagementwithcassandra.daos.UserDao;
+import com.example.usermanagementwithcassandra.dtos.BulkImportItemResult;
+import com.example.usermanagementwithcassandra.dtos.BulkImportResponse;
+import com.example.usermanagementwithcassandra.dtos.UserRequest;
+import com.example.usermanagementwithcassandra.entities.User;
+import com.example.usermanagementwithcassandra.mappers.UserMapper;
+import com.example.usermanagementwithcassandra.security.BoundedPasswordEncoder;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.validation.Validator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+
+@Service
+public class UserImportService {
+
+    private final Logger logger = LoggerFactory.getLogger(UserImportService.class);
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final UserMapper mapper;
+    private final UserRules userRules;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final UserDao userDao;
+    private final UserSearchService userSearchService;
+    private final RoleMembershipService roleMembershipService;
+    private final int maxHashing;
+    private final int maxInFlight;
+
+    @Autowired
+    public UserImportService(ObjectMapper objectMapper, Validator validator, UserMapper mapper, UserRules userRules, BoundedPasswordEncoder passwordEncoder, UserDao userDao, UserSearchService userSearchService, RoleMembershipService roleMembershipService,
+                             @Value("${bulk-import.hashing-threads}") int hashingThreads, @Value("${bulk-import.max-in-flight}") int maxInFlight) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.mapper = mapper;
+        this.userRules = userRules;
+        this.passwordEncoder = passwordEncoder;
+        this.userDao = userDao;
+        this.userSearchService = userSearchService;
+        this.roleMembershipService = roleMembershipService;
+        // Leave hashing threads free for logins while an import runs
+        this.maxHashing = hashingThreads > 0 ? hashingThreads : Math.max(1, passwordEncoder.getPoolSize() / 2);
+        this.maxInFlight = maxInFlight;
+    }
+
+    public BulkImportResponse importUsers(InputStream inputStream) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Semaphore hashing = new Semaphore(maxHashing);
+        Map<List<String>, Set<String>> resolvedRoles = new HashMap<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<CompletableFuture<BulkImportItemResult>> pending = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(inputStream)) {
+            if(parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of users");
+            }
+            int index = 0;
+            while(parser.nextToken() == JsonToken.START_OBJECT) {
+                UserRequest userRequest = objectMapper.readValue(parser, UserRequest.class);
+                pending.add(importUser(index++, userRequest, inFlight, hashing, resolvedRoles, seenEmails));
+            }
+        }
+        List<BulkImportItemResult> items = pending.stream().map(CompletableFuture::join).collect(Collectors.toList());
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        int created = (int) items.stream().filter(it -> it.getStatus() == BulkImportItemResult.Status.CREATED).count();
+        double usersPerSecond = created * 1000.0 / elapsedMillis;
+        logger.info("Bulk import finished: {} of {} users created in {} ms ({} users/s)", created, items.size(), elapsedMillis, String.format("%.1f", usersPerSecond));
+        return new BulkImportResponse(items.size(), created, items.size() - created, elapsedMillis, usersPerSecond, items);
+    }
+
+    private CompletableFuture<BulkImportItemResult> importUser(int index, UserRequest userRequest, Semaphore inFlight, Semaphore hashing, Map<List<String>, Set<String>> resolvedRoles, Set<String> seenEmails) throws InterruptedException {
+        String email = userRequest.getEmail();
+        if(!validator.validate(userRequest, UserRequest.Create.class).isEmpty()) {
+            return CompletableFuture.completedFuture(new BulkImportItemResult(index, email, BulkImportItemResult.Status.INVALID, null));
+        }
+        if(!seenEmails.add(email)) {
+            return CompletableFuture.completedFuture(new BulkImportItemResult(index, email, BulkImportItemResult.Status.DUPLICATE, null));
+        }
+
+        User user = mapper.toUser(userRequest);
+        user.setUid(UUID.randomUUID().toString());
+        user.setRoles(resolvedRoles.computeIfAbsent(userRequest.getRoles() != null ? userRequest.getRoles() : List.of(), userRules::resolveRolesOrGuest));
+
+        inFlight.acquire();
+        hashing.acquire();
+        return passwordEncoder.encodeAsync(userRequest.getPassword())
+                .whenComplete((protectedPassword, ex) -> hashing.release())
+                .thenCompose(protectedPassword -> {
+                    user.setProtectedPassword(protectedPassword);
+                    return userDao.claimEmailAsync(user);
+                })
+                .thenCompose(claimed -> {
+                    if(!claimed) {
+                        return CompletableFuture.completedFuture(new BulkImportItemResult(index, email, BulkImportItemResult.Status.CONFLICT, null));
+                    }
+                    return userDao.saveAsync(user)
+                            .thenCompose(saved -> userSearchService.indexAsync(null, user))
+                            .thenCompose(indexed -> roleMembershipService.indexAsync(null, user))
+                            .thenApply(indexed -> new BulkImportItemResult(index, email, BulkImportItemResult.Status.CREATED, user.getUid()));
+                })
+                .exceptionally(ex -> {
+                    logger.error("Exception captured importing user " + index, ex);
+                    return new BulkImportItemResult(index, email, BulkImportItemResult.Status.FAILED, null);
+                })
+                .whenComplete((result, ex) -> inFlight.release());
+    }
+}
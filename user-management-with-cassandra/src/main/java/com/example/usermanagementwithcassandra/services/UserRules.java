@@ -0,0 +1,142 @@
+package com.example.usermanagementwithcassandra.services;
+
+import com.example.usermanagementwithcassandra.daos.UserPatch;
+import com.example.usermanagementwithcassandra.dtos.UserPatchRequest;
+import com.example.usermanagementwithcassandra.dtos.UserRequest;
+import com.example.usermanagementwithcassandra.entities.Role;
+import com.example.usermanagementwithcassandra.entities.User;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Edit and patch rules shared by UserService and ReactiveUserService, each service only does its own I/O around them.
+// Roles resolve against RoleService's in-memory catalog, so nothing here touches Cassandra
+@Component
+public class UserRules {
+
+    private final RoleService roleService;
+
+    @Autowired
+    public UserRules(RoleService roleService) {
+        this.roleService = roleService;
+    }
+
+    public Set<String> resolveRolesOrGuest(Collection<String> requested) {
+        Set<String> roles = requested != null ? roleService.resolveNames(requested) : Set.of();
+        if(roles.isEmpty()) {
+            roles = Set.of(roleService.getByName(Role.GUEST).getName());
+        }
+        return roles;
+    }
+
+    public boolean hasAdminRole(Collection<String> roles) {
+        Role adminRole = roleService.getByName(Role.ADMINISTRATOR);
+        return roles != null && roles.stream().anyMatch(it -> Objects.equals(it, adminRole.getName()));
+    }
+
+    public boolean grantsAdminRole(UserPatchRequest patchRequest) {
+        return hasAdminRole(Stream.of(patchRequest.getRoles(), patchRequest.getAddRoles())
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .collect(Collectors.toList()));
+    }
+
+    // The password is left out, the copy is only compared against and indexed
+    public User copyOf(User user) {
+        return new User(user.getUid(), user.getFirstName(), user.getLastName(), user.getEmail(), null,
+                user.getRoles() != null ? new HashSet<>(user.getRoles()) : null);
+    }
+
+    public void applyEdit(User user, UserRequest userRequest) {
+        user.setFirstName(userRequest.getFirstName());
+        user.setLastName(userRequest.getLastName());
+        user.setEmail(userRequest.getEmail());
+        user.setRoles(resolveRolesOrGuest(userRequest.getRoles()));
+    }
+
+    public boolean revokesTokens(User previous, User current, boolean passwordChanged) {
+        return passwordChanged || !Objects.equals(previous.getRoles(), current.getRoles());
+    }
+
+    // Applies the patch to user and returns the writes that carry it. A full roles set from the request is folded with
+    // addRoles/removeRoles; adding and removing without one is rejected, since folding it would rewrite the whole set
+    // from this snapshot. Removing every role is the one exception: Guest is appended by a second collection update
+    public PatchPlan planPatch(User user, UserPatchRequest patchRequest, String protectedPassword) {
+        String previousEmail = user.getEmail();
+        Set<String> previousRoles = user.getRoles() != null ? user.getRoles() : Set.of();
+        Set<String> roles = patchRequest.getRoles() != null ? resolveRolesOrGuest(patchRequest.getRoles()) : null;
+        Set<String> addedRoles = patchRequest.getAddRoles() != null ? roleService.resolveNames(patchRequest.getAddRoles()) : Set.of();
+        Set<String> removedRoles = patchRequest.getRemoveRoles() != null ? new HashSet<>(patchRequest.getRemoveRoles()) : Set.of();
+        if(roles == null && !addedRoles.isEmpty() && !removedRoles.isEmpty()) {
+            throw new IllegalArgumentException("A patch can either add or remove roles, not both");
+        }
+        if(roles != null) {
+            roles = new HashSet<>(roles);
+            roles.addAll(addedRoles);
+            roles.removeAll(removedRoles);
+            if(roles.isEmpty()) {
+                roles.add(roleService.getByName(Role.GUEST).getName());
+            }
+            addedRoles = Set.of();
+            removedRoles = Set.of();
+        }
+        boolean removesEveryRole = !removedRoles.isEmpty() && removedRoles.containsAll(previousRoles);
+
+        boolean moving = patchRequest.getEmail() != null && !Objects.equals(previousEmail, patchRequest.getEmail());
+        if(moving) {
+            user.setEmail(patchRequest.getEmail());
+        }
+        if(patchRequest.getFirstName() != null) {
+            user.setFirstName(patchRequest.getFirstName());
+        }
+        if(patchRequest.getLastName() != null) {
+            user.setLastName(patchRequest.getLastName());
+        }
+        if(protectedPassword != null) {
+            user.setProtectedPassword(protectedPassword);
+        }
+        Set<String> patchedRoles = new HashSet<>(roles != null ? roles : previousRoles);
+        patchedRoles.addAll(addedRoles);
+        patchedRoles.removeAll(removedRoles);
+        if(patchedRoles.isEmpty()) {
+            patchedRoles.add(roleService.getByName(Role.GUEST).getName());
+        }
+        user.setRoles(patchedRoles);
+
+        UserPatch patch = null;
+        UserPatch guestPatch = null;
+        if(!moving) {
+            patch = new UserPatch(user.getUid(), previousEmail, patchRequest.getFirstName(), patchRequest.getLastName(), protectedPassword, roles, addedRoles, removedRoles);
+            if(removesEveryRole) {
+                guestPatch = new UserPatch(user.getUid(), previousEmail, null, null, null, null, Set.of(roleService.getByName(Role.GUEST).getName()), Set.of());
+            }
+        }
+        return new PatchPlan(previousEmail, moving, patch, guestPatch);
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class PatchPlan {
+        private final String previousEmail;
+        // A new email moves the whole row, otherwise patch (and guestPatch when every role goes) are written in place
+        private final boolean moving;
+        private final UserPatch patch;
+        private final UserPatch guestPatch;
+
+        public List<UserPatch> getPatches() {
+            List<UserPatch> patches = new ArrayList<>(2);
+            if(patch != null && !patch.isEmpty()) {
+                patches.add(patch);
+            }
+            if(guestPatch != null) {
+                patches.add(guestPatch);
+            }
+            return patches;
+        }
+    }
+}
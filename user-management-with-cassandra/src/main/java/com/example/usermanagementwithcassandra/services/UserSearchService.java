@@ -0,0 +1,116 @@
+package com.example.usermanagementwithcassandra.services;
+
+import com.example.usermanagementwithcassandra.daos.UserDao;
+import com.example.usermanagementwithcassandra.daos.UserSearchDao;
+import com.example.usermanagementwithcassandra.dtos.UserPageResponse;
+import com.example.usermanagementwithcassandra.dtos.UserResponse;
+import com.example.usermanagementwithcassandra.entities.User;
+import com.example.usermanagementwithcassandra.mappers.UserMapper;
+import com.example.usermanagementwithcassandra.utils.PagingCursor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class UserSearchService {
+
+    private final Logger logger = LoggerFactory.getLogger(UserSearchService.class);
+    private final UserSearchDao userSearchDao;
+    private final UserDao userDao;
+    private final UserMapper mapper;
+    private final int minPrefixLength;
+    private final int maxPrefixLength;
+    private final int defaultPageSize;
+    private final int maxResults;
+    private final int lookupConcurrency;
+
+    @Autowired
+    public UserSearchService(UserSearchDao userSearchDao, UserDao userDao, UserMapper mapper,
+                             @Value("${search.min-prefix-length}") int minPrefixLength, @Value("${search.max-prefix-length}") int maxPrefixLength,
+                             @Value("${search.default-page-size}") int defaultPageSize, @Value("${search.max-results}") int maxResults,
+                             @Value("${database.lookup-concurrency}") int lookupConcurrency) {
+        this.userSearchDao = userSearchDao;
+        this.userDao = userDao;
+        this.mapper = mapper;
+        this.minPrefixLength = minPrefixLength;
+        this.maxPrefixLength = maxPrefixLength;
+        this.defaultPageSize = defaultPageSize;
+        this.maxResults = maxResults;
+        this.lookupConcurrency = lookupConcurrency;
+    }
+
+    public UserPageResponse search(String query, Integer pageSize, String cursor) {
+        String term = normalize(query);
+        if(term.length() < minPrefixLength) {
+            throw new IllegalArgumentException("Search term must have at least " + minPrefixLength + " characters");
+        }
+        int size = pageSize != null ? pageSize : defaultPageSize;
+        if(size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        size = Math.min(size, maxResults);
+        List<String> uids = userSearchDao.findUids(term.substring(0, Math.min(term.length(), maxPrefixLength)), size, PagingCursor.decodeKey(cursor));
+        List<UserResponse> users = userDao.findByUids(uids, lookupConcurrency).stream()
+                .filter(user -> matches(user, term))
+                .map(mapper::toResponse)
+                .collect(Collectors.toList());
+        String nextCursor = uids.size() == size ? PagingCursor.encodeKey(uids.get(uids.size() - 1)) : null;
+        return new UserPageResponse(users, nextCursor);
+    }
+
+    public void index(User previous, User current) {
+        indexAsync(previous, current).join();
+    }
+
+    public CompletableFuture<Void> indexAsync(User previous, User current) {
+        Set<String> before = previous != null ? prefixesOf(previous) : Set.of();
+        Set<String> after = current != null ? prefixesOf(current) : Set.of();
+        String uid = current != null ? current.getUid() : previous.getUid();
+        Set<String> removed = before.stream().filter(it -> !after.contains(it)).collect(Collectors.toSet());
+        Set<String> added = after.stream().filter(it -> !before.contains(it)).collect(Collectors.toSet());
+        return CompletableFuture.allOf(userSearchDao.unindex(uid, removed), userSearchDao.index(uid, added))
+                .exceptionally(ex -> {
+                    logger.error("Exception captured. Search index is stale for user " + uid, ex);
+                    return null;
+                });
+    }
+
+    public long rebuildIndex(int pageSize) {
+        long indexed = 0;
+        try (Stream<User> users = userDao.streamAll(pageSize)) {
+            Iterator<User> iterator = users.iterator();
+            while(iterator.hasNext()) {
+                index(null, iterator.next());
+                indexed++;
+            }
+        }
+        logger.info("Search index rebuilt for {} users", indexed);
+        return indexed;
+    }
+
+    public Set<String> prefixesOf(User user) {
+        Set<String> prefixes = new HashSet<>();
+        for(String field : Arrays.asList(user.getFirstName(), user.getLastName(), user.getEmail())) {
+            String term = normalize(field);
+            for(int length = minPrefixLength; length <= Math.min(term.length(), maxPrefixLength); length++) {
+                prefixes.add(term.substring(0, length));
+            }
+        }
+        return prefixes;
+    }
+
+    private boolean matches(User user, String term) {
+        return Stream.of(user.getFirstName(), user.getLastName(), user.getEmail()).anyMatch(field -> normalize(field).startsWith(term));
+    }
+
+    private static String normalize(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -1,112 +1,167 @@
 package com.example.usermanagementwithcassandra.services;
 
+import com.example.usermanagementwithcassandra.daos.UserDao;
+import com.example.usermanagementwithcassandra.daos.UserPage;
+import com.example.usermanagementwithcassandra.daos.UserPatch;
 import com.example.usermanagementwithcassandra.dtos.LoginRequest;
 import com.example.usermanagementwithcassandra.dtos.LoginResponse;
+import com.example.usermanagementwithcassandra.dtos.UserPageResponse;
+import com.example.usermanagementwithcassandra.dtos.UserPatchRequest;
 import com.example.usermanagementwithcassandra.dtos.UserRequest;
 import com.example.usermanagementwithcassandra.dtos.UserResponse;
-import com.example.usermanagementwithcassandra.entities.Role;
 import com.example.usermanagementwithcassandra.entities.User;
-import com.example.usermanagementwithcassandra.repositories.RoleRepository;
-import com.example.usermanagementwithcassandra.repositories.UserRepository;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import org.modelmapper.ModelMapper;
+import com.example.usermanagementwithcassandra.mappers.UserMapper;
+import com.example.usermanagementwithcassandra.security.BoundedPasswordEncoder;
+import com.example.usermanagementwithcassandra.security.PasswordHashingRejectedException;
+import com.example.usermanagementwithcassandra.security.PrincipalCache;
+import com.example.usermanagementwithcassandra.security.TokenProvider;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
-public class UserService implements UserDetailsService {
+@Profile("!reactive")
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
 
     private final Logger logger = LoggerFactory.getLogger(UserService.class);
     private final AuthenticationManager authenticationManager;
-    private final ModelMapper mapper;
-    private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
-
-    @Value("${security.token-key}")
-    private String tokenKey;
-    @Value("${security.token-type}")
-    private String tokenType;
-    @Value("${security.separator}")
-    private String separator;
-    @Value("${security.validity}")
-    private Long validity;
-    @Value("${security.authorities-key}")
-    private String authoritiesKey;
+    private final UserMapper mapper;
+    private final UserDao userDao;
+    private final UserRules userRules;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
+    private final TokenProvider tokenProvider;
+    private final UserSearchService userSearchService;
+    private final RoleMembershipService roleMembershipService;
+    private final TokenRevocationService tokenRevocationService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${database.default-page-size}")
+    private int defaultPageSize;
+    @Value("${database.max-page-size}")
+    private int maxPageSize;
+    @Value("${database.scan-page-size}")
+    private int exportPageSize;
+    @Value("${database.max-lookup-size}")
+    private int maxLookupSize;
+    @Value("${database.lookup-concurrency}")
+    private int lookupConcurrency;
 
     @Autowired
-    public UserService(@Lazy AuthenticationManager authenticationManager, ModelMapper mapper, UserRepository userRepository, RoleRepository roleRepository, BCryptPasswordEncoder passwordEncoder) {
+    public UserService(@Lazy AuthenticationManager authenticationManager, UserMapper mapper, UserDao userDao, UserRules userRules, BoundedPasswordEncoder passwordEncoder, PrincipalCache principalCache, TokenProvider tokenProvider, UserSearchService userSearchService, RoleMembershipService roleMembershipService, TokenRevocationService tokenRevocationService, ObjectMapper objectMapper) {
         this.authenticationManager = authenticationManager;
         this.mapper = mapper;
-        this.userRepository = userRepository;
-        this.roleRepository = roleRepository;
+        this.userDao = userDao;
+        this.userRules = userRules;
         this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
+        this.tokenProvider = tokenProvider;
+        this.userSearchService = userSearchService;
+        this.roleMembershipService = roleMembershipService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.objectMapper = objectMapper;
     }
 
     public User getUserByEmail(String email) {
-        User user = userRepository.findByEmail(email).orElse(null);
+        User user = userDao.findByEmail(email).orElse(null);
         return user;
     }
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(username).orElse(null);
+        User user = getUserByEmail(username);
         UserDetails userDetails = null;
         if(user != null) {
-            Set<GrantedAuthority> authorities = user.getRoles().stream().map(r -> new SimpleGrantedAuthority(r)).collect(Collectors.toSet());
+            List<GrantedAuthority> authorities = PrincipalCache.toAuthorities(user.getRoles());
             userDetails = new org.springframework.security.core.userdetails.User(user.getEmail(), user.getProtectedPassword(), true, true, true, true, authorities);
         }
         return userDetails;
     }
 
-    public List<UserResponse> getAllUsers() {
-        List<UserResponse> response = null;
-        List<User> users = userRepository.findAll();
-        if(users != null && !users.isEmpty()) {
-            response = users.stream().map(user -> mapper.map(user, UserResponse.class)).collect(Collectors.toList());
-        } else {
-            response = new ArrayList<>();
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = getUserByEmail(userDetails.getUsername());
+        UserDetails updated = userDetails;
+        if(user != null) {
+            user.setProtectedPassword(newPassword);
+            if(userDao.update(user)) {
+                principalCache.invalidate(user.getEmail());
+                updated = org.springframework.security.core.userdetails.User.withUserDetails(userDetails).password(newPassword).build();
+                logger.info("Rehashed password for user {}", user.getUid());
+            }
         }
-        return response;
+        return updated;
     }
 
-    public boolean isEmailAvailable(String email) {
-        User user = userRepository.findByEmail(email).orElse(null);
-        return user == null;
+    public UserPageResponse getUsersPage(Integer pageSize, String cursor) {
+        int size = pageSize != null ? pageSize : defaultPageSize;
+        if(size < 1) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        UserPage users = userDao.findPage(Math.min(size, maxPageSize), cursor);
+        List<UserResponse> content = users.getUsers().stream().map(mapper::toResponse).collect(Collectors.toList());
+        return new UserPageResponse(content, users.getCursor());
+    }
+
+    public long exportUsers(OutputStream outputStream) throws IOException {
+        long exported = 0;
+        ObjectWriter writer = objectMapper.writerFor(UserResponse.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (Stream<User> users = userDao.streamAll(exportPageSize)) {
+            Iterator<User> iterator = users.iterator();
+            while(iterator.hasNext()) {
+                writer.writeValue(outputStream, mapper.toResponse(iterator.next()));
+                outputStream.write('\n');
+                exported++;
+                if(exported % exportPageSize == 0) {
+                    outputStream.flush();
+                }
+            }
+        }
+        outputStream.flush();
+        return exported;
     }
 
     public UserResponse createUser(UserRequest userRequest) {
-        User user = mapper.map(userRequest, User.class);
+        User user = mapper.toUser(userRequest);
         user.setUid(UUID.randomUUID().toString());
         user.setProtectedPassword(passwordEncoder.encode(userRequest.getPassword()));
-        if(userRequest.getRoles() == null || userRequest.getRoles().isEmpty()) {
-            Role guestRole = roleRepository.findByName(Role.GUEST).orElse(null);
-            user.setRoles(Set.of(guestRole.getName()));
-        } else {
-            Set<String> roles = userRequest.getRoles().stream().map(it -> roleRepository.findByName(it).orElse(null)).filter(Objects::nonNull).map(Role::getName).collect(Collectors.toSet());
-            user.setRoles(roles);
+        user.setRoles(userRules.resolveRolesOrGuest(userRequest.getRoles()));
+        if(!userDao.claimEmail(user)) {
+            throw new EmailAlreadyInUseException(user.getEmail());
+        }
+        try {
+            userDao.save(user);
+        } catch (RuntimeException ex) {
+            userDao.releaseEmail(user.getEmail(), user.getUid());
+            throw ex;
         }
-        System.out.println("Save user " + user);
-        userRepository.save(user);
-        UserResponse response = mapper.map(user, UserResponse.class);
+        userSearchService.index(null, user);
+        roleMembershipService.index(null, user);
+        UserResponse response = mapper.toResponse(user);
         return response;
     }
 
@@ -114,34 +169,29 @@ public class UserService implements UserDetailsService {
         LoginResponse response = null;
         try {
             Authentication authentication = authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
-            User user = userRepository.findByEmail(loginRequest.getEmail()).orElse(null);
+            User user = getUserByEmail(loginRequest.getEmail());
             if(user != null) {
-                String rolesClaim = user.getRoles().stream().collect(Collectors.joining(separator));
-                Claims claims = Jwts.claims();
-                claims.put(authoritiesKey, rolesClaim);
-                String subject = String.join(separator, String.valueOf(user.getUid()), user.getEmail());
-                long currentTime = System.currentTimeMillis();
-                String token = Jwts.builder()
-                        .setClaims(claims)
-                        .setSubject(subject)
-                        .setIssuedAt(new Date(currentTime))
-                        .setExpiration(new Date(currentTime + validity))
-                        .signWith(SignatureAlgorithm.HS256, tokenKey)
-                        .compact();
-                response = new LoginResponse(user.getEmail(), tokenType, token);
+                String token = tokenProvider.issue(user);
+                response = new LoginResponse(user.getEmail(), tokenProvider.getTokenType(), token);
             }
+        } catch (PasswordHashingRejectedException ex) {
+            throw ex;
         } catch (Exception ex) {
             logger.error("Exception captured", ex);
         }
         return response;
     }
 
+    public void logout(String headerAuthorization) {
+        tokenRevocationService.revoke(tokenProvider.verify(headerAuthorization));
+    }
+
     public UserResponse getUserById(String id) {
         UserResponse response = null;
         try {
-            User user = userRepository.findByUid(id).orElse(null);
+            User user = userDao.findByUid(id).orElse(null);
             if (user != null) {
-                response = mapper.map(user, UserResponse.class);
+                response = mapper.toResponse(user);
             }
         } catch (Exception ex) {
             logger.error("Exception captured. Id not found", ex);
@@ -149,49 +199,106 @@ public class UserService implements UserDetailsService {
         return response;
     }
 
+    public List<UserResponse> lookupUsers(List<String> uids) {
+        List<String> distinctUids = uids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if(distinctUids.size() > maxLookupSize) {
+            throw new IllegalArgumentException("At most " + maxLookupSize + " uids can be looked up at once");
+        }
+        return userDao.findByUids(distinctUids, lookupConcurrency).stream().map(mapper::toResponse).collect(Collectors.toList());
+    }
+
     public boolean createUserRequestHasAdminRole(UserRequest userRequest) {
-        Role adminRole = roleRepository.findByName(Role.ADMINISTRATOR).orElse(null);
-        return userRequest.getRoles() != null && userRequest.getRoles().stream().anyMatch(it -> Objects.equals(it, adminRole.getName()));
+        return userRules.hasAdminRole(userRequest.getRoles());
     }
 
     public boolean createUserRequestHasAdminRole(User user) {
-        Role adminRole = roleRepository.findByName(Role.ADMINISTRATOR).orElse(null);
-        return user.getRoles() != null && user.getRoles().stream().anyMatch(it -> Objects.equals(it, adminRole.getName()));
+        return userRules.hasAdminRole(user.getRoles());
     }
 
     public UserResponse editUser(String uid, UserRequest userRequest) {
-        userRepository.findAll().forEach(it -> {
-            System.out.println("APPLOGGER - editUser checker - " + it);
-        });
-        User user = userRepository.findByUid(uid).orElse(null);
+        User user = userDao.findByUid(uid).orElse(null);
+        UserResponse response = null;
+        if(user != null) {
+            User previous = userRules.copyOf(user);
+            String previousEmail = user.getEmail();
+            userRules.applyEdit(user, userRequest);
+            boolean passwordChanged = userRequest.getPassword() != null;
+            if(passwordChanged) {
+                user.setProtectedPassword(passwordEncoder.encode(userRequest.getPassword()));
+            }
+            boolean applied = true;
+            if(Objects.equals(previousEmail, user.getEmail())) {
+                applied = userDao.update(user);
+            } else {
+                moveUser(user, previousEmail);
+            }
+            if(applied) {
+                afterWrite(previous, user, passwordChanged);
+                response = mapper.toResponse(user);
+            }
+        }
+        return response;
+    }
+
+    public UserResponse patchUser(String uid, UserPatchRequest patchRequest) {
+        User user = userDao.findByUid(uid).orElse(null);
         UserResponse response = null;
         if(user != null) {
-            user.setFirstName(userRequest.getFirstName());
-            user.setLastName(userRequest.getLastName());
-            user.setEmail(userRequest.getEmail());
-            user.setProtectedPassword(passwordEncoder.encode(userRequest.getPassword()));
-            Set<String> roles = null;
-            if(userRequest.getRoles() != null && !userRequest.getRoles().isEmpty()) {
-                roles = userRequest.getRoles().stream().map(it -> roleRepository.findByName(it).orElse(null)).filter(Objects::nonNull).map(Role::getName).collect(Collectors.toSet());
+            User previous = userRules.copyOf(user);
+            String protectedPassword = patchRequest.getPassword() != null ? passwordEncoder.encode(patchRequest.getPassword()) : null;
+            UserRules.PatchPlan plan = userRules.planPatch(user, patchRequest, protectedPassword);
+            boolean applied = true;
+            if(plan.isMoving()) {
+                moveUser(user, plan.getPreviousEmail());
+            } else {
+                for(UserPatch patch : plan.getPatches()) {
+                    applied = applied && userDao.patch(patch);
+                }
             }
-            if(userRequest.getRoles() == null || (roles != null && roles.isEmpty())) {
-                Role guestRole = roleRepository.findByName(Role.GUEST).orElse(null);
-                roles = Set.of(guestRole.getName());
+            if(applied) {
+                afterWrite(previous, user, protectedPassword != null);
+                response = mapper.toResponse(user);
             }
-            user.setRoles(roles);
-            userRepository.deleteByUid(uid);
-            userRepository.save(user);
-//            userRepository.insert(user);
-            response = mapper.map(user, UserResponse.class);
         }
         return response;
     }
 
+    public boolean patchRequestHasAdminRole(UserPatchRequest patchRequest) {
+        return userRules.grantsAdminRole(patchRequest);
+    }
+
+    private void moveUser(User user, String previousEmail) {
+        if(!userDao.claimEmail(user)) {
+            throw new EmailAlreadyInUseException(user.getEmail());
+        }
+        try {
+            userDao.move(user, previousEmail);
+        } catch (RuntimeException ex) {
+            userDao.releaseEmail(user.getEmail(), user.getUid());
+            throw ex;
+        }
+    }
+
+    private void afterWrite(User previous, User user, boolean passwordChanged) {
+        principalCache.invalidate(previous.getEmail());
+        principalCache.invalidate(user.getEmail());
+        if(userRules.revokesTokens(previous, user, passwordChanged)) {
+            tokenRevocationService.revokeUser(user.getUid());
+        }
+        userSearchService.index(previous, user);
+        roleMembershipService.index(previous, user);
+    }
+
     public boolean deleteUser(String id) {
         boolean success = false;
-        User user = userRepository.findByUid(id).orElse(null);
+        User user = userDao.findByUid(id).orElse(null);
         if(user != null) {
-            userRepository.delete(user);
+            userDao.deleteByUid(id);
+            userDao.releaseEmail(user.getEmail(), id);
+            principalCache.invalidate(user.getEmail());
+            tokenRevocationService.revokeUser(id);
+            userSearchService.index(user, null);
+            roleMembershipService.index(user, null);
             success = true;
         }
         return success;
@@ -0,0 +1,110 @@
+package com.example.usermanagementwithcassandra.utils;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.config.ProgrammaticDriverConfigLoaderBuilder;
+import com.datastax.oss.driver.api.core.metrics.DefaultNodeMetric;
+import com.datastax.oss.driver.api.core.metrics.DefaultSessionMetric;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.cassandra.CqlSessionBuilderCustomizer;
+import org.springframework.boot.autoconfigure.cassandra.DriverConfigLoaderBuilderCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.cassandra.core.AsyncCassandraOperations;
+import org.springframework.data.cassandra.core.AsyncCassandraTemplate;
+import org.springframework.data.cassandra.core.convert.CassandraConverter;
+import org.springframework.data.cassandra.repository.config.EnableCassandraRepositories;
+
+import java.time.Duration;
+import java.util.List;
+
+@Configuration
+@Profile("!in-memory")
+@EnableCassandraRepositories("com.example.usermanagementwithcassandra.repositories")
+@EnableConfigurationProperties(ExecutionProfileProperties.class)
+public class CassandraProvider {
+
+    @Bean
+    public AsyncCassandraOperations provideAsyncCassandraTemplate(CqlSession session, CassandraConverter converter) {
+        return new AsyncCassandraTemplate(session, converter);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "database.query-accounting.enabled", havingValue = "true")
+    public static BeanPostProcessor provideQueryAccountingSession() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof CqlSession && !(bean instanceof QueryAccountingSession) ? new QueryAccountingSession((CqlSession) bean) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public CqlSessionBuilderCustomizer provideDriverMetricRegistry(MeterRegistry meterRegistry) {
+        return builder -> builder.withMetricRegistry(meterRegistry);
+    }
+
+    @Bean
+    public DriverConfigLoaderBuilderCustomizer provideDriverMetrics() {
+        return builder -> builder
+                .withString(DefaultDriverOption.METRICS_FACTORY_CLASS, "MicrometerMetricsFactory")
+                .withStringList(DefaultDriverOption.METRICS_SESSION_ENABLED, List.of(
+                        DefaultSessionMetric.CONNECTED_NODES.getPath(),
+                        DefaultSessionMetric.CQL_REQUESTS.getPath(),
+                        DefaultSessionMetric.CQL_CLIENT_TIMEOUTS.getPath(),
+                        DefaultSessionMetric.THROTTLING_DELAY.getPath(),
+                        DefaultSessionMetric.THROTTLING_QUEUE_SIZE.getPath(),
+                        DefaultSessionMetric.THROTTLING_ERRORS.getPath(),
+                        DefaultSessionMetric.BYTES_SENT.getPath(),
+                        DefaultSessionMetric.BYTES_RECEIVED.getPath()))
+                .withStringList(DefaultDriverOption.METRICS_NODE_ENABLED, List.of(
+                        DefaultNodeMetric.OPEN_CONNECTIONS.getPath(),
+                        DefaultNodeMetric.AVAILABLE_STREAMS.getPath(),
+                        DefaultNodeMetric.IN_FLIGHT.getPath(),
+                        DefaultNodeMetric.ORPHANED_STREAMS.getPath(),
+                        DefaultNodeMetric.UNSENT_REQUESTS.getPath(),
+                        DefaultNodeMetric.ABORTED_REQUESTS.getPath(),
+                        DefaultNodeMetric.WRITE_TIMEOUTS.getPath(),
+                        DefaultNodeMetric.READ_TIMEOUTS.getPath(),
+                        DefaultNodeMetric.UNAVAILABLES.getPath(),
+                        DefaultNodeMetric.OTHER_ERRORS.getPath(),
+                        DefaultNodeMetric.RETRIES.getPath(),
+                        DefaultNodeMetric.SPECULATIVE_EXECUTIONS.getPath(),
+                        DefaultNodeMetric.CONNECTION_INIT_ERRORS.getPath(),
+                        DefaultNodeMetric.AUTHENTICATION_ERRORS.getPath()));
+    }
+
+    @Bean
+    public DriverConfigLoaderBuilderCustomizer provideExecutionProfiles(ExecutionProfileProperties properties) {
+        return builder -> properties.getExecutionProfiles().forEach((name, profile) -> {
+            ProgrammaticDriverConfigLoaderBuilder profileBuilder = builder.startProfile(name);
+            if(profile.getConsistency() != null) {
+                profileBuilder.withString(DefaultDriverOption.REQUEST_CONSISTENCY, profile.getConsistency());
+            }
+            if(profile.getSerialConsistency() != null) {
+                profileBuilder.withString(DefaultDriverOption.REQUEST_SERIAL_CONSISTENCY, profile.getSerialConsistency());
+            }
+            if(profile.getTimeout() != null) {
+                profileBuilder.withDuration(DefaultDriverOption.REQUEST_TIMEOUT, Duration.ofMillis(profile.getTimeout()));
+            }
+            if(profile.getPageSize() != null) {
+                profileBuilder.withInt(DefaultDriverOption.REQUEST_PAGE_SIZE, profile.getPageSize());
+            }
+            if(profile.getDefaultIdempotence() != null) {
+                profileBuilder.withBoolean(DefaultDriverOption.REQUEST_DEFAULT_IDEMPOTENCE, profile.getDefaultIdempotence());
+            }
+            if(profile.getSpeculativeMaxExecutions() != null && profile.getSpeculativeMaxExecutions() > 1) {
+                profileBuilder.withString(DefaultDriverOption.SPECULATIVE_EXECUTION_POLICY_CLASS, "ConstantSpeculativeExecutionPolicy")
+                        .withInt(DefaultDriverOption.SPECULATIVE_EXECUTION_MAX, profile.getSpeculativeMaxExecutions())
+                        .withDuration(DefaultDriverOption.SPECULATIVE_EXECUTION_DELAY, Duration.ofMillis(profile.getSpeculativeDelay() != null ? profile.getSpeculativeDelay() : 0));
+            }
+            profileBuilder.endProfile();
+        });
+    }
+
+}
@@ -0,0 +1,28 @@
+package com.example.usermanagementwithcassandra.utils;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "database")
+public class ExecutionProfileProperties {
+
+    private Map<String, Profile> executionProfiles = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Profile {
+        private String consistency;
+        private String serialConsistency;
+        private Long timeout;
+        private Integer pageSize;
+        private Boolean defaultIdempotence;
+        private Integer speculativeMaxExecutions;
+        private Long speculativeDelay;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.usermanagementwithcassandra.utils;
+
+public final class ExecutionProfiles {
+    public static final String AUTH_READ = "auth-read";
+    public static final String ADMIN_SCAN = "admin-scan";
+    public static final String WRITE = "write";
+    public static final String EMAIL_CLAIM = "email-claim";
+
+    private ExecutionProfiles() {
+    }
+}
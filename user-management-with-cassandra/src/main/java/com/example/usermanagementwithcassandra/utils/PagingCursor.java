@@ -0,0 +1,57 @@
+package com.example.usermanagementwithcassandra.utils;
+
+import org.springframework.data.cassandra.core.query.CassandraPageRequest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+public final class PagingCursor {
+
+    private PagingCursor() {
+    }
+
+    public static CassandraPageRequest toPageable(int pageSize, String cursor) {
+        CassandraPageRequest pageable = null;
+        if(cursor == null || cursor.isBlank()) {
+            pageable = CassandraPageRequest.first(pageSize);
+        } else {
+            pageable = CassandraPageRequest.of(PageRequest.of(0, pageSize), decode(cursor));
+        }
+        return pageable;
+    }
+
+    public static String fromPageable(Pageable pageable) {
+        String cursor = null;
+        if(pageable instanceof CassandraPageRequest) {
+            cursor = encode(((CassandraPageRequest) pageable).getPagingState());
+        }
+        return cursor;
+    }
+
+    public static ByteBuffer decode(String cursor) {
+        return cursor == null || cursor.isBlank() ? null : ByteBuffer.wrap(Base64.getUrlDecoder().decode(cursor));
+    }
+
+    public static String decodeKey(String cursor) {
+        ByteBuffer key = decode(cursor);
+        return key != null ? StandardCharsets.UTF_8.decode(key).toString() : null;
+    }
+
+    public static String encodeKey(String key) {
+        return key != null ? encode(StandardCharsets.UTF_8.encode(key)) : null;
+    }
+
+    public static String encode(ByteBuffer pagingState) {
+        String cursor = null;
+        if(pagingState != null) {
+            ByteBuffer copy = pagingState.duplicate();
+            byte[] bytes = new byte[copy.remaining()];
+            copy.get(bytes);
+            cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        }
+        return cursor;
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.usermanagementwithcassandra.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.web.util.OnCommittedResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@Component
+@Profile("!reactive")
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "database.query-accounting.enabled", havingValue = "true")
+public class QueryAccountingFilter extends OncePerRequestFilter {
+
+    public static final String QUERY_STATS_HEADER = "X-Cassandra-Queries";
+
+    private final Logger logger = LoggerFactory.getLogger(QueryAccountingFilter.class);
+    private final int budget;
+    private final boolean responseHeader;
+
+    public QueryAccountingFilter(@Value("${database.query-accounting.budget}") int budget, @Value("${database.query-accounting.response-header}") boolean responseHeader) {
+        this.budget = budget;
+        this.responseHeader = responseHeader;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+        QueryStats stats = QueryStats.start();
+        HttpServletResponse accountedResponse = responseHeader ? new QueryStatsResponseWrapper(response, stats) : response;
+        try {
+            chain.doFilter(request, accountedResponse);
+        } finally {
+            QueryStats.clear();
+            if(responseHeader && !response.isCommitted()) {
+                response.setHeader(QUERY_STATS_HEADER, stats.toString());
+            }
+            if(stats.getStatements() > budget && !request.isAsyncStarted()) {
+                logger.warn("{} {} exceeded the query budget of {}: {}, repeated {}", request.getMethod(), request.getRequestURI(), budget, stats, stats.getRepeatedQueries());
+            }
+        }
+    }
+
+    private static class QueryStatsResponseWrapper extends OnCommittedResponseWrapper {
+
+        private final QueryStats stats;
+
+        QueryStatsResponseWrapper(HttpServletResponse response, QueryStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        protected void onResponseCommitted() {
+            setHeader(QUERY_STATS_HEADER, stats.toString());
+        }
+    }
+}
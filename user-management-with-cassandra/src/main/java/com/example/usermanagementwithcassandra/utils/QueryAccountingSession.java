@@ -0,0 +1,43 @@
+package com.example.usermanagementwithcassandra.utils;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.session.Request;
+import com.datastax.oss.driver.api.core.session.SessionWrapper;
+import com.datastax.oss.driver.api.core.type.reflect.GenericType;
+
+import java.util.concurrent.CompletionStage;
+
+public class QueryAccountingSession extends SessionWrapper implements CqlSession {
+
+    public QueryAccountingSession(CqlSession delegate) {
+        super(delegate);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <RequestT extends Request, ResultT> ResultT execute(RequestT request, GenericType<ResultT> resultType) {
+        QueryStats stats = QueryStats.current();
+        if(stats == null || !(request instanceof Statement)) {
+            return super.execute(request, resultType);
+        }
+        stats.recordStatement((Statement<?>) request);
+        ResultT result = super.execute(request, resultType);
+        if(result instanceof ResultSet) {
+            ResultSet resultSet = (ResultSet) result;
+            stats.recordPage(resultSet.getExecutionInfo(), resultSet.getAvailableWithoutFetching());
+        } else if(result instanceof CompletionStage) {
+            // Record on the returned stage so callers observe the counts once their continuation runs
+            result = (ResultT) ((CompletionStage<?>) result).thenApply(page -> {
+                if(page instanceof AsyncResultSet) {
+                    AsyncResultSet resultSet = (AsyncResultSet) page;
+                    stats.recordPage(resultSet.getExecutionInfo(), resultSet.remaining());
+                }
+                return page;
+            });
+        }
+        return result;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.usermanagementwithcassandra.utils;
+
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private final Map<String, LongAdder> queries = new ConcurrentHashMap<>();
+
+    public static QueryStats start() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    public void recordStatement(Statement<?> statement) {
+        statements.incrementAndGet();
+        queries.computeIfAbsent(queryOf(statement), key -> new LongAdder()).increment();
+    }
+
+    public void recordPage(ExecutionInfo executionInfo, int rowCount) {
+        rows.addAndGet(rowCount);
+        if(executionInfo != null && executionInfo.getResponseSizeInBytes() > 0) {
+            bytes.addAndGet(executionInfo.getResponseSizeInBytes());
+        }
+    }
+
+    public long getStatements() {
+        return statements.get();
+    }
+
+    public long getRows() {
+        return rows.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    public Map<String, Long> getRepeatedQueries() {
+        return queries.entrySet().stream()
+                .filter(entry -> entry.getValue().sum() > 1)
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("statements=%d, rows=%d, bytes=%d", getStatements(), getRows(), getBytes());
+    }
+
+    private static String queryOf(Statement<?> statement) {
+        String query = statement.getClass().getSimpleName();
+        if(statement instanceof SimpleStatement) {
+            query = ((SimpleStatement) statement).getQuery();
+        } else if(statement instanceof BoundStatement) {
+            query = ((BoundStatement) statement).getPreparedStatement().getQuery();
+        } else if(statement instanceof BatchStatement) {
+            query = "BATCH(" + ((BatchStatement) statement).size() + ")";
+        }
+        return query;
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.boot.test.util.TestPropertyValues;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.context.ApplicationContextInitializer;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Profiles;
 import org.springframework.http.*;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -50,11 +51,14 @@ public class UserManagementControllerClientSideTests extends AbstractTestNGSprin
     static class Initializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
         @Override
         public void initialize(ConfigurableApplicationContext applicationContext) {
+            if(applicationContext.getEnvironment().acceptsProfiles(Profiles.of("in-memory"))) {
+                return;
+            }
             cassandraContainer.start();
 
-            String cassandraPort = String.format("spring.data.cassandra.port=%d", cassandraContainer.getFirstMappedPort());
-            String cassandraUsername = String.format("spring.data.cassandra.username=%s", cassandraContainer.getUsername());
-            String cassandraPassword = String.format("spring.data.cassandra.password=%s", cassandraContainer.getPassword());
+            String cassandraPort = String.format("spring.cassandra.port=%d", cassandraContainer.getFirstMappedPort());
+            String cassandraUsername = String.format("spring.cassandra.username=%s", cassandraContainer.getUsername());
+            String cassandraPassword = String.format("spring.cassandra.password=%s", cassandraContainer.getPassword());
 
             TestPropertyValues.of(
                     cassandraPort, cassandraUsername, cassandraPassword
@@ -0,0 +1,283 @@
+package com.example.usermanagementwithcassandra.integrations;
+
+import com.example.usermanagementwithcassandra.dtos.BulkImportResponse;
+import com.example.usermanagementwithcassandra.dtos.LoginRequest;
+import com.example.usermanagementwithcassandra.dtos.LoginResponse;
+import com.example.usermanagementwithcassandra.dtos.UserPageResponse;
+import com.example.usermanagementwithcassandra.dtos.UserPatchRequest;
+import com.example.usermanagementwithcassandra.dtos.UserRequest;
+import com.example.usermanagementwithcassandra.dtos.UserResponse;
+import com.example.usermanagementwithcassandra.entities.Role;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Profiles;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.testcontainers.containers.CassandraContainer;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.testng.Assert.*;
+
+// Drives the running server over HTTP, so the same contract is checked in servlet and reactive mode
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(initializers = UserManagementControllerContractTests.Initializer.class)
+public class UserManagementControllerContractTests extends AbstractTestNGSpringContextTests {
+
+    @Value("${security.token-type}")
+    private String TOKEN_TYPE;
+
+    @LocalServerPort
+    private int port;
+
+    public static final CassandraContainer cassandraContainer = new CassandraContainer<>("cassandra:4.1")
+            .withInitScript("database-init.sql")
+            .withReuse(true);
+
+    private WebTestClient webTestClient;
+    private String adminToken;
+
+    static class Initializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+        @Override
+        public void initialize(ConfigurableApplicationContext applicationContext) {
+            if(applicationContext.getEnvironment().acceptsProfiles(Profiles.of("in-memory"))) {
+                return;
+            }
+            cassandraContainer.start();
+
+            String cassandraPort = String.format("spring.cassandra.port=%d", cassandraContainer.getFirstMappedPort());
+            String cassandraUsername = String.format("spring.cassandra.username=%s", cassandraContainer.getUsername());
+            String cassandraPassword = String.format("spring.cassandra.password=%s", cassandraContainer.getPassword());
+
+            TestPropertyValues.of(
+                    cassandraPort, cassandraUsername, cassandraPassword
+            ).applyTo(applicationContext.getEnvironment());
+        }
+    }
+
+    @BeforeClass(dependsOnMethods = "springTestContextPrepareTestInstance")
+    public void setUpClient() {
+        this.webTestClient = WebTestClient.bindToServer()
+                .baseUrl(String.format("http://localhost:%d", port))
+                .responseTimeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    @Test
+    public void loginRoot_success() {
+        this.adminToken = login(new LoginRequest("root@gmail.com", "root"));
+        assertNotNull(this.adminToken);
+    }
+
+    @Test(dependsOnMethods = {"loginRoot_success"})
+    public void patchUser_success() {
+        UserRequest userRequest = new UserRequest("Patricia", "Contract", "patricia.contract@gmail.com", "qwerty", List.of(Role.GUEST));
+        UserResponse created = create(userRequest);
+        String token = login(new LoginRequest(userRequest.getEmail(), userRequest.getPassword()));
+
+        UserResponse patched = webTestClient.patch().uri("/users/{uid}", created.getUid())
+                .header(HttpHeaders.AUTHORIZATION, bearer(token))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserPatchRequest("Pat", null, null, null, null, null, null))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UserResponse.class)
+                .returnResult().getResponseBody();
+
+        assertNotNull(patched);
+        assertEquals("Pat", patched.getFirstName());
+        assertEquals(userRequest.getLastName(), patched.getLastName());
+
+        webTestClient.patch().uri("/users/{uid}", created.getUid())
+                .header(HttpHeaders.AUTHORIZATION, bearer(token))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserPatchRequest(null, null, "not-an-email", null, null, null, null))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webTestClient.patch().uri("/users/{uid}", created.getUid())
+                .header(HttpHeaders.AUTHORIZATION, bearer(token))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserPatchRequest(null, null, null, null, null, List.of(Role.ADMINISTRATOR), null))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test(dependsOnMethods = {"loginRoot_success"})
+    public void editUserWithoutPassword_keepsToken() {
+        UserRequest userRequest = new UserRequest("Edgar", "Contract", "edgar.contract@gmail.com", "qwerty", List.of(Role.GUEST));
+        UserResponse created = create(userRequest);
+        String token = login(new LoginRequest(userRequest.getEmail(), userRequest.getPassword()));
+
+        UserRequest renameRequest = new UserRequest("Edgar", "Renamed", userRequest.getEmail(), null, List.of(Role.GUEST));
+
+        webTestClient.put().uri("/users/{uid}", created.getUid())
+                .header(HttpHeaders.AUTHORIZATION, bearer(token))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(renameRequest)
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get().uri("/users/{uid}", created.getUid())
+                .header(HttpHeaders.AUTHORIZATION, bearer(token))
+                .exchange()
+                .expectStatus().isOk();
+
+        UserRequest passwordRequest = new UserRequest("Edgar", "Renamed", userRequest.getEmail(), "changed", List.of(Role.GUEST));
+
+        webTestClient.put().uri("/users/{uid}", created.getUid())
+                .header(HttpHeaders.AUTHORIZATION, bearer(token))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(passwordRequest)
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get().uri("/users/{uid}", created.getUid())
+                .header(HttpHeaders.AUTHORIZATION, bearer(token))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    @Test(dependsOnMethods = {"loginRoot_success"})
+    public void searchUsers_followsWrites() {
+        UserResponse created = create(new UserRequest("Quincy", "Contract", "quincy.contract@gmail.com", "qwerty", List.of(Role.GUEST)));
+
+        UserPageResponse found = search("quincy");
+        assertEquals(1, found.getUsers().size());
+        assertEquals(created.getUid(), found.getUsers().get(0).getUid());
+
+        webTestClient.delete().uri("/users/{uid}", created.getUid())
+                .header(HttpHeaders.AUTHORIZATION, bearer(this.adminToken))
+                .exchange()
+                .expectStatus().isOk();
+
+        assertEquals(0, search("quincy").getUsers().size());
+
+        webTestClient.get().uri(uriBuilder -> uriBuilder.path("/users/search").queryParam("q", "q").build())
+                .header(HttpHeaders.AUTHORIZATION, bearer(this.adminToken))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test(dependsOnMethods = {"loginRoot_success"})
+    public void getRoleMembers_followsWrites() {
+        UserResponse created = create(new UserRequest("Rolf", "Contract", "rolf.contract@gmail.com", "qwerty", List.of(Role.GUEST)));
+
+        assertTrue(members(Role.GUEST).getUsers().stream().anyMatch(it -> created.getUid().equals(it.getUid())));
+        assertTrue(members(Role.ADMINISTRATOR).getUsers().stream().noneMatch(it -> created.getUid().equals(it.getUid())));
+
+        webTestClient.patch().uri("/users/{uid}", created.getUid())
+                .header(HttpHeaders.AUTHORIZATION, bearer(this.adminToken))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(new UserPatchRequest(null, null, null, null, null, List.of(Role.ADMINISTRATOR), null))
+                .exchange()
+                .expectStatus().isOk();
+
+        assertTrue(members(Role.ADMINISTRATOR).getUsers().stream().anyMatch(it -> created.getUid().equals(it.getUid())));
+
+        webTestClient.get().uri("/users/roles/{name}/members", "Unknown")
+                .header(HttpHeaders.AUTHORIZATION, bearer(this.adminToken))
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test(dependsOnMethods = {"loginRoot_success"})
+    public void importUsersInBulk_success() {
+        List<UserRequest> userRequests = List.of(
+                new UserRequest("Bulk", "Contract 0", "bulk.contract0@gmail.com", "qwerty", List.of(Role.GUEST)),
+                new UserRequest("Bulk", "Contract 1", "bulk.contract1@gmail.com", "qwerty", List.of(Role.GUEST)),
+                new UserRequest("Bulk", "Duplicated", "bulk.contract0@gmail.com", "qwerty", List.of(Role.GUEST)));
+
+        BulkImportResponse report = webTestClient.post().uri("/users/bulk")
+                .header(HttpHeaders.AUTHORIZATION, bearer(this.adminToken))
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userRequests)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BulkImportResponse.class)
+                .returnResult().getResponseBody();
+
+        assertNotNull(report);
+        assertEquals(3, report.getTotal());
+        assertEquals(2, report.getCreated());
+
+        webTestClient.post().uri("/users/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[]")
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    public void logout_revokesToken() {
+        UserRequest userRequest = new UserRequest("Lorna", "Contract", "lorna.contract@gmail.com", "qwerty", List.of(Role.GUEST));
+        UserResponse created = create(userRequest);
+        String token = login(new LoginRequest(userRequest.getEmail(), userRequest.getPassword()));
+
+        webTestClient.post().uri("/users/logout")
+                .header(HttpHeaders.AUTHORIZATION, bearer(token))
+                .exchange()
+                .expectStatus().isNoContent();
+
+        webTestClient.get().uri("/users/{uid}", created.getUid())
+                .header(HttpHeaders.AUTHORIZATION, bearer(token))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    private UserResponse create(UserRequest userRequest) {
+        UserResponse created = webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(userRequest)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(UserResponse.class)
+                .returnResult().getResponseBody();
+        assertNotNull(created);
+        return created;
+    }
+
+    private String login(LoginRequest loginRequest) {
+        LoginResponse response = webTestClient.post().uri("/users/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(loginRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(LoginResponse.class)
+                .returnResult().getResponseBody();
+        assertNotNull(response);
+        return response.getToken();
+    }
+
+    private UserPageResponse search(String query) {
+        return webTestClient.get().uri(uriBuilder -> uriBuilder.path("/users/search").queryParam("q", query).build())
+                .header(HttpHeaders.AUTHORIZATION, bearer(this.adminToken))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UserPageResponse.class)
+                .returnResult().getResponseBody();
+    }
+
+    private UserPageResponse members(String role) {
+        return webTestClient.get().uri(uriBuilder -> uriBuilder.path("/users/roles/{name}/members").queryParam("pageSize", 1000).build(role))
+                .header(HttpHeaders.AUTHORIZATION, bearer(this.adminToken))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(UserPageResponse.class)
+                .returnResult().getResponseBody();
+    }
+
+    private String bearer(String token) {
+        return String.format("%s %s", this.TOKEN_TYPE, token);
+    }
+}
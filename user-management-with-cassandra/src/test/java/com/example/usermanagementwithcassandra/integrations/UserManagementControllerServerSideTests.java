@@ -1,10 +1,16 @@
 package com.example.usermanagementwithcassandra.integrations;
 
+import com.example.usermanagementwithcassandra.dtos.BulkImportItemResult;
+import com.example.usermanagementwithcassandra.dtos.BulkImportResponse;
 import com.example.usermanagementwithcassandra.dtos.LoginRequest;
 import com.example.usermanagementwithcassandra.dtos.LoginResponse;
+import com.example.usermanagementwithcassandra.dtos.UserLookupRequest;
+import com.example.usermanagementwithcassandra.dtos.UserPageResponse;
+import com.example.usermanagementwithcassandra.dtos.UserPatchRequest;
 import com.example.usermanagementwithcassandra.dtos.UserRequest;
 import com.example.usermanagementwithcassandra.dtos.UserResponse;
 import com.example.usermanagementwithcassandra.entities.Role;
+import com.example.usermanagementwithcassandra.utils.QueryAccountingFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,7 +22,10 @@ import org.springframework.boot.test.util.TestPropertyValues;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.context.ApplicationContextInitializer;
 import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringRunner;
@@ -26,14 +35,22 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.testcontainers.containers.CassandraContainer;
 import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.testng.AssertJUnit.assertTrue;
 
@@ -55,6 +72,9 @@ public class UserManagementControllerServerSideTests extends AbstractTestNGSprin
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private Environment environment;
+
     private final ObjectMapper mapper = new ObjectMapper();
 
     public static final CassandraContainer cassandraContainer = new CassandraContainer<>("cassandra:4.1")
@@ -71,11 +91,14 @@ public class UserManagementControllerServerSideTests extends AbstractTestNGSprin
     static class Initializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
         @Override
         public void initialize(ConfigurableApplicationContext applicationContext) {
+            if(applicationContext.getEnvironment().acceptsProfiles(Profiles.of("in-memory"))) {
+                return;
+            }
             cassandraContainer.start();
 
-            String cassandraPort = String.format("spring.data.cassandra.port=%d", cassandraContainer.getFirstMappedPort());
-            String cassandraUsername = String.format("spring.data.cassandra.username=%s", cassandraContainer.getUsername());
-            String cassandraPassword = String.format("spring.data.cassandra.password=%s", cassandraContainer.getPassword());
+            String cassandraPort = String.format("spring.cassandra.port=%d", cassandraContainer.getFirstMappedPort());
+            String cassandraUsername = String.format("spring.cassandra.username=%s", cassandraContainer.getUsername());
+            String cassandraPassword = String.format("spring.cassandra.password=%s", cassandraContainer.getPassword());
 
             TestPropertyValues.of(
                     cassandraPort, cassandraUsername, cassandraPassword
@@ -208,6 +231,43 @@ public class UserManagementControllerServerSideTests extends AbstractTestNGSprin
                 .andExpect(status().isConflict());
     }
 
+    @Test
+    public void createUser_concurrentSignupsHaveExactlyOneWinner() throws Exception {
+        int contenders = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(contenders);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>(contenders);
+            for (int i = 0; i < contenders; i++) {
+                UserRequest userRequest = new UserRequest("Race", "Contender " + i, "race@gmail.com", "qwerty", List.of(Role.GUEST));
+                statuses.add(executor.submit(() -> {
+                    start.await();
+                    return mockMvc.perform(post("/users")
+                                    .contentType(MediaType.APPLICATION_JSON_VALUE)
+                                    .accept(MediaType.APPLICATION_JSON_VALUE)
+                                    .content(mapper.writeValueAsString(userRequest)))
+                            .andReturn().getResponse().getStatus();
+                }));
+            }
+            start.countDown();
+
+            int created = 0;
+            int conflicts = 0;
+            for (Future<Integer> status : statuses) {
+                int code = status.get(60, TimeUnit.SECONDS);
+                if (code == HttpStatus.CREATED.value()) {
+                    created++;
+                } else if (code == HttpStatus.CONFLICT.value()) {
+                    conflicts++;
+                }
+            }
+            assertEquals(1, created);
+            assertEquals(contenders - 1, conflicts);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
     @Test(dependsOnMethods = "createUserWithDefaultRole_success")
     public void editUserWithUserCredentials_success() throws Exception {
         String testPassword = "12345";
@@ -338,6 +398,289 @@ public class UserManagementControllerServerSideTests extends AbstractTestNGSprin
                 .andExpect(status().isOk());
     }
 
+    @Test(dependsOnMethods = {"loginRoot_success"})
+    public void editUserKeepingEmail_success() throws Exception {
+        UserRequest userRequest = new UserRequest("Kate", "Doe", "katedoe@gmail.com", "qwerty", List.of(Role.GUEST));
+
+        MvcResult createResult = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(userRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        UserResponse created = mapper.readValue(createResult.getResponse().getContentAsString(), UserResponse.class);
+
+        UserRequest userEditRequest = new UserRequest("Katherine", "Doe", "katedoe@gmail.com", "asdfg", List.of(Role.GUEST));
+
+        mockMvc.perform(put("/users/{uid}", created.getUid())
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken))
+                        .content(mapper.writeValueAsString(userEditRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.uid").value(created.getUid()))
+                .andExpect(jsonPath("$.firstName").value(userEditRequest.getFirstName()))
+                .andExpect(jsonPath("$.email").value(userEditRequest.getEmail()));
+
+        mockMvc.perform(get("/users/{uid}", created.getUid())
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value(userEditRequest.getFirstName()));
+
+        mockMvc.perform(post("/users/login")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(new LoginRequest(userRequest.getEmail(), userRequest.getPassword()))))
+                .andExpect(status().isUnauthorized());
+
+        mockMvc.perform(post("/users/login")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(new LoginRequest(userEditRequest.getEmail(), userEditRequest.getPassword()))))
+                .andExpect(status().isOk());
+    }
+
+    @Test(dependsOnMethods = {"loginRoot_success"})
+    public void editUserWithoutPassword_keepsPassword() throws Exception {
+        UserRequest userRequest = new UserRequest("Nina", "Doe", "ninadoe@gmail.com", "qwerty", List.of(Role.GUEST));
+
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(new UserRequest("Nina", "Doe", "ninadoe@gmail.com", null, List.of(Role.GUEST)))))
+                .andExpect(status().isBadRequest());
+
+        MvcResult createResult = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(userRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        UserResponse created = mapper.readValue(createResult.getResponse().getContentAsString(), UserResponse.class);
+
+        UserRequest userEditRequest = new UserRequest("Nina", "Smith", userRequest.getEmail(), null, List.of(Role.GUEST));
+
+        mockMvc.perform(put("/users/{uid}", created.getUid())
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken))
+                        .content(mapper.writeValueAsString(userEditRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.lastName").value(userEditRequest.getLastName()));
+
+        mockMvc.perform(post("/users/login")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(new LoginRequest(userRequest.getEmail(), userRequest.getPassword()))))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void patchUserWithUserCredentials_success() throws Exception {
+        UserRequest userRequest = new UserRequest("Lisa", "Doe", "lisadoe@gmail.com", "qwerty", List.of(Role.GUEST));
+
+        MvcResult createResult = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(userRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        UserResponse created = mapper.readValue(createResult.getResponse().getContentAsString(), UserResponse.class);
+
+        MvcResult loginResult = mockMvc.perform(post("/users/login")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(new LoginRequest(userRequest.getEmail(), userRequest.getPassword()))))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String token = mapper.readValue(loginResult.getResponse().getContentAsString(), LoginResponse.class).getToken();
+
+        UserPatchRequest patchRequest = new UserPatchRequest("Elisabeth", null, null, null, null, null, null);
+
+        mockMvc.perform(patch("/users/{uid}", created.getUid())
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, token))
+                        .content(mapper.writeValueAsString(patchRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.firstName").value(patchRequest.getFirstName()))
+                .andExpect(jsonPath("$.lastName").value(userRequest.getLastName()))
+                .andExpect(jsonPath("$.email").value(userRequest.getEmail()))
+                .andExpect(jsonPath("$.roles[0]").value(Role.GUEST));
+
+        mockMvc.perform(post("/users/login")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(new LoginRequest(userRequest.getEmail(), userRequest.getPassword()))))
+                .andExpect(status().isOk());
+
+        UserPatchRequest adminPatchRequest = new UserPatchRequest(null, null, null, null, null, List.of(Role.ADMINISTRATOR), null);
+
+        mockMvc.perform(patch("/users/{uid}", created.getUid())
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, token))
+                        .content(mapper.writeValueAsString(adminPatchRequest)))
+                .andExpect(status().isForbidden());
+
+        UserPatchRequest emailPatchRequest = new UserPatchRequest(null, null, "root@gmail.com", null, null, null, null);
+
+        mockMvc.perform(patch("/users/{uid}", created.getUid())
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, token))
+                        .content(mapper.writeValueAsString(emailPatchRequest)))
+                .andExpect(status().isConflict());
+
+        UserPatchRequest invalidPatchRequest = new UserPatchRequest(" ", null, "not-an-email", null, null, null, null);
+
+        mockMvc.perform(patch("/users/{uid}", created.getUid())
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, token))
+                        .content(mapper.writeValueAsString(invalidPatchRequest)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test(dependsOnMethods = {"loginRoot_success"})
+    public void patchUserRolesWithAdminCredentials_success() throws Exception {
+        UserRequest userRequest = new UserRequest("Nora", "Doe", "noradoe@gmail.com", "qwerty", List.of(Role.GUEST));
+
+        MvcResult createResult = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(userRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        UserResponse created = mapper.readValue(createResult.getResponse().getContentAsString(), UserResponse.class);
+
+        UserPatchRequest addPatchRequest = new UserPatchRequest(null, null, null, null, null, List.of(Role.ADMINISTRATOR), null);
+
+        MvcResult addResult = mockMvc.perform(patch("/users/{uid}", created.getUid())
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken))
+                        .content(mapper.writeValueAsString(addPatchRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        UserResponse added = mapper.readValue(addResult.getResponse().getContentAsString(), UserResponse.class);
+        assertEquals(2, added.getRoles().size());
+
+        UserPatchRequest removePatchRequest = new UserPatchRequest(null, null, null, null, null, null, List.of(Role.GUEST));
+
+        mockMvc.perform(patch("/users/{uid}", created.getUid())
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken))
+                        .content(mapper.writeValueAsString(removePatchRequest)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/{uid}", created.getUid())
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.roles.length()").value(1))
+                .andExpect(jsonPath("$.roles[0]").value(Role.ADMINISTRATOR));
+
+        UserPatchRequest mixedPatchRequest = new UserPatchRequest(null, null, null, null, null, List.of(Role.GUEST), List.of(Role.ADMINISTRATOR));
+
+        mockMvc.perform(patch("/users/{uid}", created.getUid())
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken))
+                        .content(mapper.writeValueAsString(mixedPatchRequest)))
+                .andExpect(status().isBadRequest());
+
+        UserPatchRequest removeAllPatchRequest = new UserPatchRequest(null, null, null, null, null, null, List.of(Role.ADMINISTRATOR));
+
+        mockMvc.perform(patch("/users/{uid}", created.getUid())
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken))
+                        .content(mapper.writeValueAsString(removeAllPatchRequest)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/users/{uid}", created.getUid())
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.roles.length()").value(1))
+                .andExpect(jsonPath("$.roles[0]").value(Role.GUEST));
+    }
+
+    @Test(dependsOnMethods = {"loginRoot_success"})
+    public void lookupUsersWithAdminCredentials_success() throws Exception {
+        assertNotNull(this.adminToken);
+
+        UserRequest userRequest = new UserRequest("Mary", "Doe", "marydoe@gmail.com", "qwerty", List.of(Role.GUEST));
+
+        MvcResult createResult = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(userRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        UserResponse created = mapper.readValue(createResult.getResponse().getContentAsString(), UserResponse.class);
+        UserLookupRequest lookupRequest = new UserLookupRequest(List.of(created.getUid(), "unknown-uid", created.getUid()));
+
+        mockMvc.perform(post("/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken))
+                        .content(mapper.writeValueAsString(lookupRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].uid").value(created.getUid()))
+                .andExpect(jsonPath("$[0].email").value(userRequest.getEmail()));
+    }
+
+    @Test
+    public void lookupUsersWithUserCredentials_failByForeignUid() throws Exception {
+        UserRequest userRequest = new UserRequest("Norma", "Doe", "normadoe@gmail.com", "qwerty", List.of(Role.GUEST));
+
+        MvcResult createResult = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(userRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        UserResponse created = mapper.readValue(createResult.getResponse().getContentAsString(), UserResponse.class);
+
+        MvcResult loginResult = mockMvc.perform(post("/users/login")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(new LoginRequest(userRequest.getEmail(), userRequest.getPassword()))))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String token = mapper.readValue(loginResult.getResponse().getContentAsString(), LoginResponse.class).getToken();
+
+        mockMvc.perform(post("/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, token))
+                        .content(mapper.writeValueAsString(new UserLookupRequest(List.of(created.getUid(), "another-uid")))))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/users/lookup")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, token))
+                        .content(mapper.writeValueAsString(new UserLookupRequest(List.of(created.getUid())))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].uid").value(created.getUid()));
+    }
+
     @Test(dependsOnMethods = {"createUserWithDefaultRole_success"})
     public void deleteUser_failByNoCredentials() throws Exception {
         mockMvc.perform(delete("/users/{uid}", this.userCreatedWithDefaultRole.getUid()))
@@ -377,4 +720,307 @@ public class UserManagementControllerServerSideTests extends AbstractTestNGSprin
         this.userCreatedWithDefaultRole = null;
         this.userCreatedWithDefaultRolePassword = null;
     }
+
+    @Test(dependsOnMethods = {"loginRoot_success"})
+    public void getPrincipalCacheStats_success() throws Exception {
+        assertNotNull(this.adminToken);
+
+        mockMvc.perform(get("/users/cache/principals")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").exists())
+                .andExpect(jsonPath("$.hits").exists())
+                .andExpect(jsonPath("$.misses").exists())
+                .andExpect(jsonPath("$.evictions").exists());
+    }
+
+    @Test
+    public void getPrincipalCacheStats_failByNoCredentials() throws Exception {
+        mockMvc.perform(get("/users/cache/principals")
+                        .accept(MediaType.APPLICATION_JSON_VALUE))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    public void loginRoot_reportsQueryStats() throws Exception {
+        LoginRequest loginRequest = new LoginRequest("root@gmail.com", "root");
+
+        MvcResult result = mockMvc.perform(post("/users/login")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        if(environment.acceptsProfiles(Profiles.of("in-memory"))) {
+            throw new SkipException("No Cassandra statements are issued by the in-memory store");
+        }
+        String queryStats = result.getResponse().getHeader(QueryAccountingFilter.QUERY_STATS_HEADER);
+        assertNotNull(queryStats);
+        assertTrue(queryStats.matches("statements=[1-9]\\d*, rows=\\d+, bytes=\\d+"));
+    }
+
+    @Test(dependsOnMethods = {"loginRoot_success", "createUserWithAdminRole_success"})
+    public void getAllUsersByPages_success() throws Exception {
+        assertNotNull(this.adminToken);
+
+        MvcResult firstPageResult = mockMvc.perform(get("/users")
+                        .param("pageSize", "1")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(1))
+                .andExpect(jsonPath("$.cursor").exists())
+                .andReturn();
+
+        UserPageResponse firstPage = mapper.readValue(firstPageResult.getResponse().getContentAsString(), UserPageResponse.class);
+
+        MvcResult secondPageResult = mockMvc.perform(get("/users")
+                        .param("pageSize", "1")
+                        .param("cursor", firstPage.getCursor())
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(1))
+                .andReturn();
+
+        UserPageResponse secondPage = mapper.readValue(secondPageResult.getResponse().getContentAsString(), UserPageResponse.class);
+
+        assertNotEquals(firstPage.getUsers().get(0).getUid(), secondPage.getUsers().get(0).getUid());
+    }
+
+    @Test(dependsOnMethods = {"loginRoot_success"})
+    public void searchUsersByPrefix_success() throws Exception {
+        assertNotNull(this.adminToken);
+
+        UserRequest userRequest = new UserRequest("Quentin", "Zephyrine", "quentin.zephyrine@gmail.com", "qwerty", List.of(Role.GUEST));
+
+        MvcResult createResult = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(userRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        UserResponse created = mapper.readValue(createResult.getResponse().getContentAsString(), UserResponse.class);
+
+        for(String query : List.of("zeph", "Zephyrine", "quentin.zeph")) {
+            mockMvc.perform(get("/users/search")
+                            .param("q", query)
+                            .accept(MediaType.APPLICATION_JSON_VALUE)
+                            .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.users.length()").value(1))
+                    .andExpect(jsonPath("$.users[0].uid").value(created.getUid()));
+        }
+
+        mockMvc.perform(get("/users/search")
+                        .param("q", "zephyrinex")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(0));
+    }
+
+    @Test(dependsOnMethods = {"loginRoot_success"})
+    public void searchUsers_failByShortQuery() throws Exception {
+        mockMvc.perform(get("/users/search")
+                        .param("q", "z")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test(dependsOnMethods = {"loginRoot_success"})
+    public void getRoleMembers_success() throws Exception {
+        assertNotNull(this.adminToken);
+
+        UserRequest userRequest = new UserRequest("Member", "Guest", "member.guest@gmail.com", "qwerty", List.of(Role.GUEST));
+
+        MvcResult createResult = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(userRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        UserResponse created = mapper.readValue(createResult.getResponse().getContentAsString(), UserResponse.class);
+
+        MvcResult adminsResult = mockMvc.perform(get("/users/roles/{name}/members", Role.ADMINISTRATOR)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        UserPageResponse admins = mapper.readValue(adminsResult.getResponse().getContentAsString(), UserPageResponse.class);
+        assertTrue(admins.getUsers().stream().anyMatch(it -> "root@gmail.com".equals(it.getEmail())));
+        assertTrue(admins.getUsers().stream().noneMatch(it -> created.getUid().equals(it.getUid())));
+
+        MvcResult guestsResult = mockMvc.perform(get("/users/roles/{name}/members", Role.GUEST)
+                        .param("pageSize", "1000")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        UserPageResponse guests = mapper.readValue(guestsResult.getResponse().getContentAsString(), UserPageResponse.class);
+        assertTrue(guests.getUsers().stream().anyMatch(it -> created.getUid().equals(it.getUid())));
+
+        mockMvc.perform(get("/users/roles/{name}/members", "Unknown")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void logout_revokesToken() throws Exception {
+        UserRequest userRequest = new UserRequest("Logan", "Out", "logan.out@gmail.com", "qwerty", List.of(Role.GUEST));
+
+        MvcResult createResult = mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(userRequest)))
+                .andExpect(status().isCreated())
+                .andReturn();
+
+        UserResponse created = mapper.readValue(createResult.getResponse().getContentAsString(), UserResponse.class);
+        LoginRequest loginRequest = new LoginRequest(userRequest.getEmail(), userRequest.getPassword());
+
+        MvcResult loginResult = mockMvc.perform(post("/users/login")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String token = mapper.readValue(loginResult.getResponse().getContentAsString(), LoginResponse.class).getToken();
+
+        mockMvc.perform(get("/users/{uid}", created.getUid())
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, token)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/users/logout")
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, token)))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/users/{uid}", created.getUid())
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, token)))
+                .andExpect(status().isUnauthorized());
+
+        MvcResult reloginResult = mockMvc.perform(post("/users/login")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content(mapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String freshToken = mapper.readValue(reloginResult.getResponse().getContentAsString(), LoginResponse.class).getToken();
+
+        mockMvc.perform(get("/users/{uid}", created.getUid())
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, freshToken)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void logout_failByNoCredentials() throws Exception {
+        mockMvc.perform(post("/users/logout"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test(dependsOnMethods = {"loginRoot_success"})
+    public void getAllUsers_failByInvalidPageSize() throws Exception {
+        mockMvc.perform(get("/users")
+                        .param("pageSize", "0")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test(dependsOnMethods = {"loginRoot_success", "createUserWithAdminRole_success"})
+    public void exportUsers_success() throws Exception {
+        assertNotNull(this.adminToken);
+
+        MvcResult asyncResult = mockMvc.perform(get("/users/export")
+                        .accept(MediaType.APPLICATION_NDJSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk());
+
+        String[] lines = asyncResult.getResponse().getContentAsString().split("\n");
+
+        assertTrue(lines.length >= 2);
+        for (String line : lines) {
+            UserResponse userResponse = mapper.readValue(line, UserResponse.class);
+            assertNotNull(userResponse.getUid());
+            assertNotNull(userResponse.getEmail());
+        }
+    }
+
+    @Test
+    public void exportUsers_failByNoCredentials() throws Exception {
+        mockMvc.perform(get("/users/export")
+                        .accept(MediaType.APPLICATION_NDJSON_VALUE))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test(dependsOnMethods = {"loginRoot_success"})
+    public void importUsersInBulk_success() throws Exception {
+        assertNotNull(this.adminToken);
+
+        int size = Integer.getInteger("bulkImportSize", 1000);
+        List<UserRequest> userRequests = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            userRequests.add(new UserRequest("Bulk", "User " + i, String.format("bulk%d@gmail.com", i), "qwerty", List.of(Role.GUEST)));
+        }
+        userRequests.add(new UserRequest("Bulk", "Duplicated", "bulk0@gmail.com", "qwerty", List.of(Role.GUEST)));
+        userRequests.add(new UserRequest("Bulk", "Existing", "root@gmail.com", "qwerty", List.of(Role.GUEST)));
+
+        MvcResult result = mockMvc.perform(post("/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken))
+                        .content(mapper.writeValueAsBytes(userRequests)))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        BulkImportResponse report = mapper.readValue(result.getResponse().getContentAsString(), BulkImportResponse.class);
+
+        assertEquals(size + 2, report.getTotal());
+        assertEquals(size, report.getCreated());
+        assertEquals(BulkImportItemResult.Status.DUPLICATE, report.getItems().get(size).getStatus());
+        assertEquals(BulkImportItemResult.Status.CONFLICT, report.getItems().get(size + 1).getStatus());
+    }
+
+    @Test
+    public void importUsersInBulk_failByNoCredentials() throws Exception {
+        mockMvc.perform(post("/users/bulk")
+                        .contentType(MediaType.APPLICATION_JSON_VALUE)
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .content("[]"))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test(dependsOnMethods = {"loginRoot_success"})
+    public void getHashingExecutorStats_success() throws Exception {
+        assertNotNull(this.adminToken);
+
+        mockMvc.perform(get("/users/hashing/executor")
+                        .accept(MediaType.APPLICATION_JSON_VALUE)
+                        .header(HttpHeaders.AUTHORIZATION, String.format("%s %s", this.TOKEN_TYPE, this.adminToken)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.poolSize").exists())
+                .andExpect(jsonPath("$.queueDepth").exists())
+                .andExpect(jsonPath("$.completed").exists())
+                .andExpect(jsonPath("$.averageHashMillis").exists())
+                .andExpect(jsonPath("$.abandoned").exists())
+                .andExpect(jsonPath("$.abandonedRunning").exists())
+                .andExpect(jsonPath("$.retryAfterSeconds").exists());
+    }
 }
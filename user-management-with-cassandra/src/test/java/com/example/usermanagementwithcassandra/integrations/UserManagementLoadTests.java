@@ -0,0 +1,304 @@
+package com.example.usermanagementwithcassandra.integrations;
+
+import com.example.usermanagementwithcassandra.dtos.LoginRequest;
+import com.example.usermanagementwithcassandra.dtos.LoginResponse;
+import com.example.usermanagementwithcassandra.dtos.UserRequest;
+import com.example.usermanagementwithcassandra.dtos.UserResponse;
+import com.example.usermanagementwithcassandra.entities.Role;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Profiles;
+import org.springframework.http.*;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.testng.AbstractTestNGSpringContextTests;
+import org.testcontainers.containers.CassandraContainer;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.testng.Assert.*;
+
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ContextConfiguration(initializers = UserManagementLoadTests.Initializer.class)
+public class UserManagementLoadTests extends AbstractTestNGSpringContextTests {
+
+    private static final List<String> OPERATIONS = List.of("login", "get", "create", "edit", "delete");
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    @Value("${security.token-type}")
+    private String TOKEN_TYPE;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @LocalServerPort
+    private int port;
+
+    public static final CassandraContainer cassandraContainer = new CassandraContainer<>("cassandra:4.1")
+            .withInitScript("database-init.sql")
+            .withReuse(true);
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+    private final int rate = Integer.getInteger("loadRate", 50);
+    private final int durationSeconds = Integer.getInteger("loadDuration", 30);
+    private final int warmupSeconds = Integer.getInteger("loadWarmup", 5);
+    private final int poolSize = Integer.getInteger("loadUsers", 50);
+    private final String mix = System.getProperty("loadMix", "login=30,get=50,create=10,edit=5,delete=5");
+    private final double tolerance = Double.parseDouble(System.getProperty("loadTolerance", "0.2"));
+    private final File baselineFile = new File(System.getProperty("loadBaseline", "load-baseline.json"));
+    private final boolean updateBaseline = Boolean.getBoolean("loadUpdateBaseline");
+
+    static class Initializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+        @Override
+        public void initialize(ConfigurableApplicationContext applicationContext) {
+            if(applicationContext.getEnvironment().acceptsProfiles(Profiles.of("in-memory"))) {
+                return;
+            }
+            cassandraContainer.start();
+
+            String cassandraPort = String.format("spring.cassandra.port=%d", cassandraContainer.getFirstMappedPort());
+            String cassandraUsername = String.format("spring.cassandra.username=%s", cassandraContainer.getUsername());
+            String cassandraPassword = String.format("spring.cassandra.password=%s", cassandraContainer.getPassword());
+
+            TestPropertyValues.of(
+                    cassandraPort, cassandraUsername, cassandraPassword
+            ).applyTo(applicationContext.getEnvironment());
+        }
+    }
+
+    @Test
+    public void mixedWorkload_p99WithinBaseline() throws Exception {
+        String adminToken = login(new LoginRequest("root@gmail.com", "root"));
+        assertNotNull(adminToken);
+
+        String runId = UUID.randomUUID().toString().substring(0, 8);
+        List<UserResponse> pool = new ArrayList<>(poolSize);
+        for (int i = 0; i < poolSize; i++) {
+            pool.add(createUser(new UserRequest("Load", "User " + i, String.format("load-%s-%d@gmail.com", runId, i), "qwerty", List.of(Role.GUEST))));
+        }
+
+        Workload warmup = new Workload(adminToken, pool, runId + "-warmup");
+        warmup.run(warmupSeconds);
+
+        // Virtual threads don't show up in these counts, so comparing runs with and without the virtual-threads profile
+        // shows how many platform threads the same load pins
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        Workload workload = new Workload(adminToken, pool, runId);
+        workload.run(durationSeconds);
+
+        Map<String, Double> p99s = new LinkedHashMap<>();
+        System.out.printf("Load run: %d req/s for %d s, mix %s%n", rate, durationSeconds, mix);
+        System.out.printf("Threads: virtual %s, peak %d platform threads, %d live after the run%n", virtualThreads, threads.getPeakThreadCount(), threads.getThreadCount());
+        System.out.printf("%-8s %8s %8s %10s %10s %10s %10s%n", "endpoint", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (String operation : OPERATIONS) {
+            Histogram histogram = workload.histograms.get(operation);
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            double p99 = millis(histogram.getValueAtPercentile(99));
+            p99s.put(operation, p99);
+            System.out.printf("%-8s %8d %8d %10.2f %10.2f %10.2f %10.2f%n", operation, histogram.getTotalCount(), workload.errors.get(operation).get(),
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(90)), p99, millis(histogram.getMaxValue()));
+        }
+
+        for (String operation : OPERATIONS) {
+            assertEquals(workload.errors.get(operation).get(), 0L, "Unexpected failures for " + operation);
+        }
+
+        if (updateBaseline || !baselineFile.exists()) {
+            mapper.writer().with(SerializationFeature.INDENT_OUTPUT).writeValue(baselineFile, p99s);
+            System.out.printf("Stored p99 baseline in %s%n", baselineFile.getAbsolutePath());
+            return;
+        }
+
+        Map<String, Double> baseline = mapper.readValue(baselineFile, new TypeReference<Map<String, Double>>() {});
+        List<String> regressions = new ArrayList<>();
+        p99s.forEach((operation, p99) -> {
+            Double allowed = baseline.get(operation);
+            if (allowed != null && p99 > allowed * (1 + tolerance)) {
+                regressions.add(String.format("%s p99 %.2f ms > baseline %.2f ms (+%.0f%%)", operation, p99, allowed, tolerance * 100));
+            }
+        });
+        assertTrue(regressions.isEmpty(), "p99 regressions: " + regressions);
+    }
+
+    private class Workload {
+        private final String adminToken;
+        private final List<UserResponse> pool;
+        private final String runId;
+        private final String[] schedule;
+        private final Map<String, Histogram> histograms = new HashMap<>();
+        private final Map<String, AtomicLong> errors = new HashMap<>();
+        private final Queue<String> deletable = new ConcurrentLinkedQueue<>();
+        private final AtomicLong sequence = new AtomicLong();
+
+        Workload(String adminToken, List<UserResponse> pool, String runId) {
+            this.adminToken = adminToken;
+            this.pool = pool;
+            this.runId = runId;
+            this.schedule = parseMix(mix);
+            for (String operation : OPERATIONS) {
+                histograms.put(operation, new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, 3));
+                errors.put(operation, new AtomicLong());
+            }
+        }
+
+        void run(int seconds) throws InterruptedException {
+            long total = (long) rate * seconds;
+            long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+            Random random = new Random(42);
+            List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+            long start = System.nanoTime();
+            for (long i = 0; i < total; i++) {
+                long intendedStart = start + i * interval;
+                long wait = intendedStart - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                String operation = schedule[random.nextInt(schedule.length)];
+                UserResponse user = pool.get(random.nextInt(pool.size()));
+                inFlight.add(fire(operation, user, intendedStart));
+            }
+            try {
+                CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).get(2, TimeUnit.MINUTES);
+            } catch (ExecutionException | TimeoutException ex) {
+                fail("Load run did not drain", ex);
+            }
+        }
+
+        private CompletableFuture<Void> fire(String operation, UserResponse user, long intendedStart) {
+            String uid = "delete".equals(operation) ? deletable.poll() : user.getUid();
+            if (uid == null) {
+                operation = "create";
+            }
+            String recorded = operation;
+            java.net.http.HttpRequest request;
+            try {
+                request = buildRequest(operation, user, uid);
+            } catch (Exception ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+            return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .handle((response, ex) -> {
+                        histograms.get(recorded).recordValue(Math.min(System.nanoTime() - intendedStart, HIGHEST_TRACKABLE_NANOS));
+                        if (ex != null || response.statusCode() >= 300) {
+                            errors.get(recorded).incrementAndGet();
+                        } else if ("create".equals(recorded)) {
+                            try {
+                                deletable.add(mapper.readValue(response.body(), UserResponse.class).getUid());
+                            } catch (Exception parseEx) {
+                                errors.get(recorded).incrementAndGet();
+                            }
+                        }
+                        return null;
+                    });
+        }
+
+        private java.net.http.HttpRequest buildRequest(String operation, UserResponse user, String uid) throws Exception {
+            java.net.http.HttpRequest.Builder builder = java.net.http.HttpRequest.newBuilder()
+                    .timeout(Duration.ofSeconds(30))
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+            String authorization = String.format("%s %s", TOKEN_TYPE, adminToken);
+            switch (operation) {
+                case "login":
+                    return builder.uri(uri("/users/login"))
+                            .POST(body(new LoginRequest(user.getEmail(), "qwerty")))
+                            .build();
+                case "get":
+                    return builder.uri(uri("/users/" + uid))
+                            .header(HttpHeaders.AUTHORIZATION, authorization)
+                            .GET()
+                            .build();
+                case "create":
+                    String email = String.format("load-%s-new-%d@gmail.com", runId, sequence.incrementAndGet());
+                    return builder.uri(uri("/users"))
+                            .POST(body(new UserRequest("Load", "Created", email, "qwerty", List.of(Role.GUEST))))
+                            .build();
+                case "edit":
+                    return builder.uri(uri("/users/" + uid))
+                            .header(HttpHeaders.AUTHORIZATION, authorization)
+                            .PUT(body(new UserRequest(user.getFirstName(), user.getLastName(), user.getEmail(), "qwerty", List.of(Role.GUEST))))
+                            .build();
+                case "delete":
+                    return builder.uri(uri("/users/" + uid))
+                            .header(HttpHeaders.AUTHORIZATION, authorization)
+                            .DELETE()
+                            .build();
+                default:
+                    throw new IllegalArgumentException("Unknown operation " + operation);
+            }
+        }
+    }
+
+    private String[] parseMix(String mix) {
+        List<String> schedule = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            assertTrue(OPERATIONS.contains(parts[0]), "Unknown operation in loadMix: " + parts[0]);
+            for (int i = 0; i < Integer.parseInt(parts[1]); i++) {
+                schedule.add(parts[0]);
+            }
+        }
+        assertFalse(schedule.isEmpty(), "loadMix must not be empty");
+        return schedule.toArray(new String[0]);
+    }
+
+    private String login(LoginRequest loginRequest) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        headers.add(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        ResponseEntity<LoginResponse> response = restTemplate.exchange("/users/login", HttpMethod.POST, new HttpEntity<>(loginRequest, headers), LoginResponse.class);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody().getToken();
+    }
+
+    private UserResponse createUser(UserRequest userRequest) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE);
+        headers.add(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE);
+        ResponseEntity<UserResponse> response = restTemplate.exchange("/users", HttpMethod.POST, new HttpEntity<>(userRequest, headers), UserResponse.class);
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        return response.getBody();
+    }
+
+    private URI uri(String path) {
+        return URI.create(String.format("http://localhost:%d%s", port, path));
+    }
+
+    private java.net.http.HttpRequest.BodyPublisher body(Object value) throws Exception {
+        return java.net.http.HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(value));
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -32,5 +32,50 @@ create table users
      and compression = {'chunk_length_in_kb': '16', 'class': 'org.apache.cassandra.io.compress.LZ4Compressor'}
      and speculative_retry = '99p';
 
-create index users__index_email
-    on users (email);
+create table users_by_email
+(
+    email              text,
+    uid                text,
+    first_name         text,
+    last_name          text,
+    protected_password text,
+    roles              set<text>,
+    primary key (email)
+)
+    with caching = {'keys': 'ALL', 'rows_per_partition': 'ALL'}
+     and compaction = {'class': 'org.apache.cassandra.db.compaction.LeveledCompactionStrategy'}
+     and compression = {'chunk_length_in_kb': '4', 'class': 'org.apache.cassandra.io.compress.LZ4Compressor'}
+     and speculative_retry = '99p';
+
+create table users_by_prefix
+(
+    prefix text,
+    uid    text,
+    primary key (prefix, uid)
+)
+    with caching = {'keys': 'ALL', 'rows_per_partition': 'NONE'}
+     and compaction = {'class': 'org.apache.cassandra.db.compaction.LeveledCompactionStrategy'}
+     and compression = {'chunk_length_in_kb': '4', 'class': 'org.apache.cassandra.io.compress.LZ4Compressor'}
+     and speculative_retry = '99p';
+
+create table users_by_role
+(
+    role text,
+    uid  text,
+    primary key (role, uid)
+)
+    with caching = {'keys': 'ALL', 'rows_per_partition': 'NONE'}
+     and compaction = {'class': 'org.apache.cassandra.db.compaction.LeveledCompactionStrategy'}
+     and compression = {'chunk_length_in_kb': '4', 'class': 'org.apache.cassandra.io.compress.LZ4Compressor'}
+     and speculative_retry = '99p';
+
+create table revoked_tokens
+(
+    id         text primary key,
+    revoked_at timestamp
+)
+    with caching = {'keys': 'ALL', 'rows_per_partition': 'NONE'}
+     and compaction = {'class': 'org.apache.cassandra.db.compaction.TimeWindowCompactionStrategy', 'compaction_window_unit': 'HOURS', 'compaction_window_size': '1'}
+     and gc_grace_seconds = 3600
+     and compression = {'chunk_length_in_kb': '4', 'class': 'org.apache.cassandra.io.compress.LZ4Compressor'}
+     and speculative_retry = '99p';